@@ -1,23 +1,34 @@
 package com.vimo.network;
 
-import android.app.Activity;
 import android.content.Context;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
-import android.os.Build;
-import android.provider.Settings;
 import android.util.SparseArray;
 
-import com.google.gson.Gson;
 import com.vimo.network.helper.Logger;
+import com.vimo.network.helper.PayloadCompressor;
 import com.vimo.network.listener.ConnectionListener;
 import com.vimo.network.listener.NetworkCodes;
+import com.vimo.network.listener.PrewarmListener;
+import com.vimo.network.listener.ServerEventListener;
 import com.vimo.network.listener.SocketIoManagerListener;
+import com.vimo.network.manager.CallbackDispatcher;
+import com.vimo.network.manager.ComponentCache;
+import com.vimo.network.manager.ConnectivityMonitor;
 import com.vimo.network.manager.DsDomainManager;
+import com.vimo.network.manager.EnvelopeCodec;
+import com.vimo.network.manager.IdleConnectionManager;
+import com.vimo.network.manager.LookupBackoff;
+import com.vimo.network.manager.RequestIdAllocator;
+import com.vimo.network.manager.ResponseDecoder;
+import com.vimo.network.manager.Subscription;
+import com.vimo.network.manager.SubscriptionManager;
+import com.vimo.network.manager.TimeoutManager;
 import com.vimo.network.manager.VimoEncryption;
 import com.vimo.network.model.ComponentInfo;
 import com.vimo.network.model.RequestInfo;
 import com.vimo.network.model.RequestParam;
+import com.vimo.network.model.RpcFuture;
 import com.vimo.network.model.RpcResponse;
 
 import org.json.JSONException;
@@ -28,10 +39,13 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * File created by vimo on 28/03/18.
@@ -41,20 +55,56 @@ public class NetworkManager implements SocketIoManagerListener, ConnectionListen
     private static final NetworkManager instanceManager = new NetworkManager();
     private static final String dsComponentName = "ds";
     private static final String dsComponentRpc = "servicedirectory.getComponent";
+    private static final String dsBatchComponentRpc = "servicedirectory.getComponents";
     private Context applicationContext = null;
     private SparseArray<String> localizedString = new SparseArray<>();
-    private Map<String, SocketIoManager> socketManager = new HashMap<>();
-    private Map<Integer, RequestInfo> pendingRequests = new HashMap<>();
-    private SparseArray<String> requestedComponents = new SparseArray<>();
+    // request tables are read and completed from the socket threads without holding the manager lock.
+    // a request is completed by the thread which removes it from the table
+    private final Map<String, SocketIoManager> socketManager = new ConcurrentHashMap<>();
+    // requests waiting for a lookup, in the order they came, by component
+    private final ConcurrentHashMap<String, PendingQueue> pendingRequests = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, String> requestedComponents = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Boolean> requestedDevComponents = new ConcurrentHashMap<>();
+    // reverse of requestedComponents. running lookup id of a component
+    private final ConcurrentHashMap<String, Integer> componentLookups = new ConcurrentHashMap<>();
     private List<Integer> exceptionalRequestId = null;
     private List<Integer> processInBackground = null;
     private ComponentInfo directoryServiceInfo = null;
+    private boolean binaryEnvelopeEnabled = true;
+    private int compressionThreshold = 1024;
+    private int batchLookupWindow = 0;
+    private List<Integer> batchedLookups = new ArrayList<>();
+    private List<Integer> batchedDevLookups = new ArrayList<>();
+    private boolean batchFlushScheduled = false;
+    private Map<String, List<PrewarmTask>> prewarmWaiters = new HashMap<>();
+    private int dsFailoverCount = 0;
+    private boolean connectionRacingEnabled = false;
+    private int connectionRaceDelay = 250;
+    private int maxConnectionsPerComponent = 1;
+    private int requestsPerConnection = 4;
+    private int poolIdleTimeout = 30 * 1000;
+    private boolean multiplexEnabled = false;
+    private int reconnectAttempts = 0;
+    private int reconnectBaseDelay = 500;
+    private int reconnectMaxDelay = 10 * 1000;
+    private int lingerTimeout = 0;
+    private int heartbeatInterval = 0;
+    private int maxMissedBeats = 2;
+    /** connection attempts and scheduled retries of the subscribed components which failed to connect */
+    private final Map<String, Integer> subscriptionRetries = new HashMap<>();
+    private final Map<String, TimeoutManager.Timeout> subscriptionRetryTimeouts = new HashMap<>();
 
     public static NetworkManager getManager() {
         return instanceManager;
     }
 
     private NetworkManager() {
+        IdleConnectionManager.getManager().setListener(new IdleConnectionManager.IdleListener() {
+            @Override
+            public void onIdleTimeout(String componentName) {
+                closeIdleComponent(componentName);
+            }
+        });
     }
 
     /**
@@ -62,17 +112,19 @@ public class NetworkManager implements SocketIoManagerListener, ConnectionListen
      * @return true if the network is available. Else false.
      */
     public boolean isNetworkAvailable() {
+        if (ConnectivityMonitor.getManager().isStarted()) {
+            return ConnectivityMonitor.getManager().isNetworkAvailable();
+        }
         ConnectivityManager manager = (ConnectivityManager) applicationContext.getSystemService(Context.CONNECTIVITY_SERVICE);
         NetworkInfo info = (manager == null) ? null : manager.getActiveNetworkInfo();
         return (info != null && info.isConnected());
     }
 
     public boolean isAirplaneModeOn(Context context) {
-        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR1) {
-            return Settings.System.getInt(context.getContentResolver(), Settings.System.AIRPLANE_MODE_ON, 0) != 0;
-        } else {
-            return Settings.Global.getInt(context.getContentResolver(), Settings.Global.AIRPLANE_MODE_ON, 0) != 0;
+        if (ConnectivityMonitor.getManager().isStarted()) {
+            return ConnectivityMonitor.getManager().isAirplaneModeOn();
         }
+        return ConnectivityMonitor.readAirplaneMode(context);
     }
 
     public static String getDsComponentName() {
@@ -83,6 +135,15 @@ public class NetworkManager implements SocketIoManagerListener, ConnectionListen
         return dsComponentRpc;
     }
 
+    /**
+     * Method to enable batched directory service lookups. Lookups requested within the window
+     * are merged into one servicedirectory.getComponents request.
+     * @param batchLookupWindow window in milli seconds. 0 disables the batching (default)
+     */
+    public synchronized void setBatchLookupWindow(int batchLookupWindow) {
+        this.batchLookupWindow = batchLookupWindow;
+    }
+
     /**
      * Method to configure the network manager with required info
      * @param context              context to configure the network connection manager
@@ -109,10 +170,212 @@ public class NetworkManager implements SocketIoManagerListener, ConnectionListen
         } else {
             this.processInBackground = new ArrayList<>();
         }
+        CallbackDispatcher.getManager().setExceptionalIds(this.exceptionalRequestId);
+        CallbackDispatcher.getManager().setBackgroundIds(this.processInBackground);
+        ConnectivityMonitor.getManager().setListener(new ConnectivityMonitor.ConnectivityListener() {
+            @Override
+            public void onNetworkLost() {
+                dropAllConnections();
+            }
+
+            @Override
+            public void onNetworkAvailable() {
+                Logger.message("NetworkManager :: Network is available again");
+                reopenSubscribedComponents();
+            }
+
+            @Override
+            public void onNetworkChanged() {
+                moveAllConnections();
+            }
+        });
+        ConnectivityMonitor.getManager().start(context);
+    }
+
+    /**
+     * Method to allow or deny binary payloads for the components which support it.
+     * When disabled every component falls back to hex encoded payloads.
+     * @param binaryEnvelopeEnabled true to use binary envelope where it is supported
+     */
+    public void setBinaryEnvelopeEnabled(boolean binaryEnvelopeEnabled) {
+        this.binaryEnvelopeEnabled = binaryEnvelopeEnabled;
+    }
+
+    public boolean isBinaryEnvelopeEnabled() {
+        return binaryEnvelopeEnabled;
+    }
+
+    /**
+     * Method to set the minimum payload size to compress for the components which support compression
+     * @param compressionThreshold size in bytes, or EnvelopeCodec.COMPRESSION_DISABLED to send everything uncompressed
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Method to set the largest decompressed response. A bigger response fails with EC_RESPONSE_ERROR.
+     * @param maxInflatedSize size in bytes. Default is PayloadCompressor.DEFAULT_MAX_INFLATED_SIZE
+     */
+    public void setMaxInflatedSize(int maxInflatedSize) {
+        PayloadCompressor.setMaxInflatedSize(maxInflatedSize);
+    }
+
+    /**
+     * Method to enable the connection racing. When a component (or the directory service) has
+     * more than one endpoint, the endpoints are connected with a staggered start and the first
+     * connected socket is used.
+     * @param connectionRacingEnabled true to race the endpoints
+     */
+    public void setConnectionRacingEnabled(boolean connectionRacingEnabled) {
+        this.connectionRacingEnabled = connectionRacingEnabled;
+    }
+
+    public boolean isConnectionRacingEnabled() {
+        return connectionRacingEnabled;
+    }
+
+    /**
+     * Method to set the delay between the start of two racing connection attempts
+     * @param connectionRaceDelay delay in milli seconds
+     */
+    public void setConnectionRaceDelay(int connectionRaceDelay) {
+        this.connectionRaceDelay = connectionRaceDelay;
+    }
+
+    public int getConnectionRaceDelay() {
+        return connectionRaceDelay;
+    }
+
+    /**
+     * Method to configure the connection pool of the components. A component gets one more
+     * connection when every connection has the given number of requests in flight.
+     * Directory service always uses a single connection.
+     * @param maxConnections        maximum connections per component. 1 disables the pool
+     * @param requestsPerConnection requests in flight on a connection before the pool grows
+     */
+    public void setConnectionPool(int maxConnections, int requestsPerConnection) {
+        this.maxConnectionsPerComponent = Math.max(1, maxConnections);
+        this.requestsPerConnection = Math.max(1, requestsPerConnection);
+    }
+
+    public int getMaxConnectionsPerComponent() {
+        return maxConnectionsPerComponent;
+    }
+
+    public int getRequestsPerConnection() {
+        return requestsPerConnection;
+    }
+
+    /**
+     * Method to set the time after which an idle pooled connection is closed
+     * @param poolIdleTimeout time in milli seconds
+     */
+    public void setPoolIdleTimeout(int poolIdleTimeout) {
+        this.poolIdleTimeout = poolIdleTimeout;
+    }
+
+    public int getPoolIdleTimeout() {
+        return poolIdleTimeout;
+    }
+
+    /**
+     * Method to enable the multiplexed transport. Components on the same host and port share one
+     * engine.io connection and are reached through their socket.io namespace. The server has to
+     * serve every component on the namespace "/componentName".
+     * @param multiplexEnabled true to share the connections
+     */
+    public void setMultiplexEnabled(boolean multiplexEnabled) {
+        this.multiplexEnabled = multiplexEnabled;
+    }
+
+    public boolean isMultiplexEnabled() {
+        return multiplexEnabled;
+    }
+
+    /**
+     * Method to enable the managed reconnection of the components. A dropped connection is opened
+     * again with the same component info after a jittered exponential back off. Requests which are
+     * not sent yet, and idempotent requests which are not expired, are sent again on the new connection.
+     * Callers get EC_NETWORK_ERROR only when all the attempts failed.
+     * @param attempts  reconnection attempts before giving up. 0 disables the reconnection
+     * @param baseDelay upper limit of the first back off in milli seconds
+     * @param maxDelay  upper limit of any back off in milli seconds
+     */
+    public void setReconnection(int attempts, int baseDelay, int maxDelay) {
+        this.reconnectAttempts = Math.max(0, attempts);
+        this.reconnectBaseDelay = Math.max(1, baseDelay);
+        this.reconnectMaxDelay = Math.max(this.reconnectBaseDelay, maxDelay);
+    }
+
+    public int getReconnectAttempts() {
+        return reconnectAttempts;
+    }
+
+    public int getReconnectBaseDelay() {
+        return reconnectBaseDelay;
+    }
+
+    public int getReconnectMaxDelay() {
+        return reconnectMaxDelay;
+    }
+
+    /**
+     * Method to keep the connections open after destroySocketComponent() or destroyAllSocketConnections().
+     * A connection is closed when there was no request for the linger time, or when more than
+     * maxIdleConnections connections are idle. A new request reuses the open connection.
+     * @param lingerTimeout         time in milli seconds after the last request. 0 closes the connections right away
+     * @param maxIdleConnections    maximum idle connections kept open
+     */
+    public void setIdleLinger(int lingerTimeout, int maxIdleConnections) {
+        this.lingerTimeout = Math.max(0, lingerTimeout);
+        IdleConnectionManager.getManager().setMaxIdleConnections(maxIdleConnections);
     }
 
-    private List<Integer> getExceptionalTaskId() {
-        return exceptionalRequestId;
+    public int getLingerTimeout() {
+        return lingerTimeout;
+    }
+
+    /**
+     * Method to close the idle connections without waiting for the linger time. Can be used on low memory.
+     */
+    public void closeIdleConnections() {
+        Logger.method(this, "closeIdleConnections");
+        IdleConnectionManager.getManager().closeAll();
+    }
+
+    /**
+     * Method to enable the heartbeat on the new connections. Components have to acknowledge the
+     * "heartbeat" event. A connection which misses maxMissedBeats beats in a row is closed, so its
+     * requests are failed or replayed right away instead of waiting for their timeouts.
+     * @param heartbeatInterval time between two beats in milli seconds. 0 disables the heartbeat (default)
+     * @param maxMissedBeats    unanswered beats in a row before the connection is closed
+     */
+    public void setHeartbeat(int heartbeatInterval, int maxMissedBeats) {
+        this.heartbeatInterval = Math.max(0, heartbeatInterval);
+        this.maxMissedBeats = Math.max(1, maxMissedBeats);
+    }
+
+    public int getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public int getMaxMissedBeats() {
+        return maxMissedBeats;
+    }
+
+    /**
+     * Method to get the round trip time to a component
+     * @param componentName connected component
+     * @return              smoothed heartbeat round trip time in milli seconds, or -1 if it is not measured
+     */
+    public synchronized long getSmoothedRtt(String componentName) {
+        SocketIoManager ioManager = socketManager.get(componentName);
+        return (ioManager == null) ? -1 : ioManager.getSmoothedRtt();
     }
 
     /**
@@ -123,6 +386,15 @@ public class NetworkManager implements SocketIoManagerListener, ConnectionListen
         return processInBackground;
     }
 
+    /**
+     * Method to check whether a request continues in background
+     * @param requestId request id given by the app
+     * @return          true if the id is one of the background task ids
+     */
+    public boolean isBackgroundTask(int requestId) {
+        return CallbackDispatcher.getManager().isBackground(requestId);
+    }
+
     /**
      * Method to get the localized string for the particular key
      * @param key to get the localization string
@@ -142,7 +414,271 @@ public class NetworkManager implements SocketIoManagerListener, ConnectionListen
      * @param listener      listener for callback
      */
     public static void send(final RequestParam param, final int requestId, final int timeout, final String rpc, final String componentName, final ConnectionListener listener) {
-        getManager().sendRequest(param, requestId, timeout, rpc, componentName, listener);
+        getManager().sendRequest(param, requestId, timeout, rpc, componentName, listener, null);
+    }
+
+    /**
+     * Method to send rpc request to server with the callbacks run by the given executor
+     * @param param         request param
+     * @param requestId     request id to map with response
+     * @param timeout       timeout for the request
+     * @param rpc           rpc to call
+     * @param componentName component to send request
+     * @param listener      listener for callback
+     * @param executor      executor for the callbacks. See CallbackDispatcher for the main thread and background executors.
+     *                      null uses the default delivery
+     */
+    public static void send(final RequestParam param, final int requestId, final int timeout, final String rpc, final String componentName, final ConnectionListener listener, final Executor executor) {
+        getManager().sendRequest(param, requestId, timeout, rpc, componentName, listener, executor);
+    }
+
+    /**
+     * Method to send rpc request to server with a request id generated by the library
+     * @param param         request param
+     * @param timeout       timeout for the request
+     * @param rpc           rpc to call
+     * @param componentName component to send request
+     * @param listener      listener for callback
+     * @return              generated request id which is passed to the listener. Generated ids start at
+     *                      RequestIdAllocator.FIRST_GENERATED_REQUEST_ID, so keep the exceptional and background ids below it
+     */
+    public static int send(final RequestParam param, final int timeout, final String rpc, final String componentName, final ConnectionListener listener) {
+        int requestId = RequestIdAllocator.nextRequestId();
+        getManager().sendRequest(param, requestId, timeout, rpc, componentName, listener, null);
+        return requestId;
+    }
+
+    /**
+     * Method to send rpc request to server and get the result as a future
+     * @param param         request param
+     * @param timeout       timeout for the request
+     * @param rpc           rpc to call
+     * @param componentName component to send request
+     * @return              future of the response. Cancelling it drops the request
+     */
+    public static RpcFuture<Object> sendAsync(final RequestParam param, final int timeout, final String rpc, final String componentName) {
+        return sendAsync(param, timeout, rpc, componentName, null);
+    }
+
+    /**
+     * Method to send rpc request to server and get the result as a future
+     * @param param         request param
+     * @param timeout       timeout for the request
+     * @param rpc           rpc to call
+     * @param componentName component to send request
+     * @param executor      default executor of the callbacks of the future. null runs them on the thread of the answer
+     * @return              future of the response. Cancelling it drops the request
+     */
+    public static RpcFuture<Object> sendAsync(final RequestParam param, final int timeout, final String rpc, final String componentName, final Executor executor) {
+        final RpcFuture<Object> future = new RpcFuture<>(executor);
+        int requestId = RequestIdAllocator.nextRequestId();
+        // the future picks the thread of its callbacks. complete it on the thread of the answer
+        final RequestInfo info = getManager().sendRequest(param, requestId, timeout, rpc, componentName, new ConnectionListener() {
+            @Override
+            public void onSuccess(Object response, int requestId) {
+                future.complete(response);
+            }
+
+            @Override
+            public void onFailure(String error, int errorCode, int requestId) {
+                future.fail(error, errorCode);
+            }
+        }, CallbackDispatcher.getManager().getDirectExecutor());
+        if (info != null) {
+            future.setCancelHook(new Runnable() {
+                @Override
+                public void run() {
+                    getManager().cancelRequest(info);
+                }
+            });
+        }
+        return future;
+    }
+
+    /**
+     * Method to resolve and connect the components before the first request.
+     * Lookups and connections of all the components are done in parallel.
+     * @param components    names of the components to prepare
+     * @param listener      listener to get the readiness of the components
+     */
+    public synchronized void prewarm(List<String> components, PrewarmListener listener) {
+        Logger.method(this, "prewarm :: " + components);
+        PrewarmTask task = new PrewarmTask(new ArrayList<>(new LinkedHashSet<>(components)), listener);
+        if (!isNetworkAvailable() || isAirplaneModeOn(applicationContext)) {
+            Logger.error("NetworkManager :: prewarm :: Network is not available");
+            for (String componentName : task.components) {
+                task.componentFailed(componentName, getLocalizedString(EC_NETWORK_DOWN), EC_NETWORK_DOWN);
+            }
+            return;
+        }
+        for (String componentName : task.components) {
+            SocketIoManager ioManager = socketManager.get(componentName);
+            if (IdleConnectionManager.getManager().touch(componentName)) {
+                // going to be used soon. start the linger time again
+                IdleConnectionManager.getManager().markIdle(componentName, lingerTimeout);
+            }
+            if (ioManager != null && ioManager.isActive()) {
+                task.componentReady(componentName);
+                continue;
+            }
+            if (ioManager != null && ioManager.isConnecting()) {
+                addPrewarmWaiter(componentName, task);
+                continue;
+            }
+            if (ioManager != null) {
+                Logger.message("NetworkManager :: prewarm :: Clearing died " + componentName + " connection");
+                ioManager.clearSocketManager();
+                socketManager.remove(componentName);
+            }
+            ComponentInfo cachedInfo = ComponentCache.getManager().get(componentName, false);
+            LookupBackoff.Failure failure = (cachedInfo == null) ? LookupBackoff.getManager().get(componentName, false) : null;
+            if (failure != null) {
+                Logger.error("NetworkManager :: prewarm :: Lookup of " + componentName + " failed recently");
+                task.componentFailed(componentName, failure.getError(), failure.getErrorCode());
+                continue;
+            }
+            addPrewarmWaiter(componentName, task);
+            if (cachedInfo != null) {
+                ioManager = new SocketIoManager(cachedInfo, componentName, this);
+                socketManager.put(componentName, ioManager);
+                ioManager.connect();
+            } else {
+                // placeholder request. It opens the connection once the lookup is done
+                int requestId = RequestIdAllocator.nextLookupId();
+                RequestInfo warmupInfo = new RequestInfo(componentName, null, requestId, default_timeout, null, task);
+                warmupInfo.setWarmup(true);
+                // the lookup id is never a background id. the task itself delivers to the prewarm listener
+                warmupInfo.setCallbackExecutor(CallbackDispatcher.getManager().getDirectExecutor());
+                task.warmupRequests.put(requestId, componentName);
+                addPendingRequest(warmupInfo);
+                requestLookup(componentName, false, null);
+            }
+        }
+    }
+
+    /**
+     * Method to subscribe to an event pushed by a component. Events are buffered up to
+     * Subscription.DEFAULT_CAPACITY, the oldest one is dropped on overflow, and the listener runs on the main thread.
+     * @param componentName component which pushes the event
+     * @param eventName     name of the event
+     * @param listener      listener of the decrypted events
+     * @return              subscription. Cancel it to stop the events
+     */
+    public Subscription subscribe(String componentName, String eventName, ServerEventListener listener) {
+        return subscribe(componentName, eventName, Subscription.DEFAULT_CAPACITY, Subscription.OVERFLOW_DROP_OLDEST, null, listener);
+    }
+
+    /**
+     * Method to subscribe to an event pushed by a component. The connection of the component is
+     * opened if needed and kept open while it has subscriptions.
+     * @param componentName  component which pushes the event
+     * @param eventName      name of the event
+     * @param capacity       number of events buffered until the listener takes them
+     * @param overflowPolicy Subscription.OVERFLOW_DROP_OLDEST, OVERFLOW_COALESCE or OVERFLOW_BLOCK
+     * @param executor       executor of the listener, or null for the main thread
+     * @param listener       listener of the decrypted events
+     * @return               subscription. Cancel it to stop the events
+     */
+    public Subscription subscribe(String componentName, String eventName, int capacity, int overflowPolicy, Executor executor, ServerEventListener listener) {
+        Subscription subscription = SubscriptionManager.getManager().subscribe(componentName, eventName, capacity, overflowPolicy,
+                (executor != null) ? executor : CallbackDispatcher.getManager().getMainThreadExecutor(), listener);
+        SocketIoManager ioManager = socketManager.get(componentName);
+        if (ioManager == null || !(ioManager.isActive() || ioManager.isConnecting())) {
+            prewarm(Collections.singletonList(componentName), new SubscriptionPrewarmListener());
+        }
+        return subscription;
+    }
+
+    /**
+     * Method to connect the subscribed components again after the network is back
+     */
+    private void reopenSubscribedComponents() {
+        List<String> components = SubscriptionManager.getManager().getSubscribedComponents();
+        if (!components.isEmpty()) {
+            Logger.message("NetworkManager :: Reopening subscribed components :: " + components);
+            prewarm(components, new SubscriptionPrewarmListener());
+        }
+    }
+
+    /**
+     * Method to connect a subscribed component again after it failed to connect or lost its
+     * connection. Tells the subscribers and waits like a reconnect, up to the max reconnect delay.
+     * @param componentName failed component
+     * @param error         error message
+     * @param errorCode     error code of the failure
+     */
+    private void retrySubscribedComponent(final String componentName, String error, int errorCode) {
+        if (dsComponentName.equals(componentName) || !SubscriptionManager.getManager().hasSubscriptions(componentName)) {
+            return;
+        }
+        long delay;
+        synchronized (subscriptionRetries) {
+            if (subscriptionRetryTimeouts.containsKey(componentName)) {
+                return;
+            }
+            Integer attempts = subscriptionRetries.get(componentName);
+            int attempt = (attempts == null) ? 0 : attempts;
+            subscriptionRetries.put(componentName, attempt + 1);
+            delay = Math.min((long) reconnectBaseDelay << Math.min(attempt, 16), reconnectMaxDelay);
+            subscriptionRetryTimeouts.put(componentName, TimeoutManager.getManager().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (subscriptionRetries) {
+                        subscriptionRetryTimeouts.remove(componentName);
+                    }
+                    reopenSubscribedComponent(componentName);
+                }
+            }, delay));
+        }
+        SubscriptionManager.getManager().notifyFailure(componentName, error, errorCode);
+        Logger.message("NetworkManager :: Connecting subscribed " + componentName + " again in " + delay + " ms");
+    }
+
+    private void reopenSubscribedComponent(String componentName) {
+        if (!SubscriptionManager.getManager().hasSubscriptions(componentName)) {
+            return;
+        }
+        if (ConnectivityMonitor.getManager().isStarted() && !ConnectivityMonitor.getManager().isNetworkAvailable()) {
+            // reopened by onNetworkAvailable()
+            Logger.message("NetworkManager :: Network is down. Not reopening " + componentName);
+            return;
+        }
+        SocketIoManager ioManager = socketManager.get(componentName);
+        if (ioManager == null || !(ioManager.isActive() || ioManager.isConnecting())) {
+            prewarm(Collections.singletonList(componentName), new SubscriptionPrewarmListener());
+        }
+    }
+
+    private void addPrewarmWaiter(String componentName, PrewarmTask task) {
+        List<PrewarmTask> waiters = prewarmWaiters.get(componentName);
+        if (waiters == null) {
+            waiters = new ArrayList<>();
+            prewarmWaiters.put(componentName, waiters);
+        }
+        waiters.add(task);
+    }
+
+    /**
+     * Method to notify the prewarm tasks waiting for a component
+     * @param componentName component which is connected or failed
+     * @param error         error message, or null if the component is connected
+     * @param errorCode     error code for the failure
+     */
+    private void notifyPrewarmWaiters(String componentName, String error, int errorCode) {
+        List<PrewarmTask> waiters;
+        synchronized (this) {
+            waiters = prewarmWaiters.remove(componentName);
+        }
+        if (waiters == null) {
+            return;
+        }
+        for (PrewarmTask task : waiters) {
+            if (error == null) {
+                task.componentReady(componentName);
+            } else {
+                task.componentFailed(componentName, error, errorCode);
+            }
+        }
     }
 
     public void destroySocketComponent(String componentName) {
@@ -158,6 +694,14 @@ public class NetworkManager implements SocketIoManagerListener, ConnectionListen
                     socketManager.remove(componentName);
                 } else if (ioManager.anyBackgroundTask()) {
                     Logger.message("NetworkManager :: There are some background task going on. Can not destroy " + componentName + " component.");
+                } else if (SubscriptionManager.getManager().hasSubscriptions(componentName)) {
+                    Logger.message("NetworkManager :: " + componentName + " has event subscriptions. Can not destroy it.");
+                } else if (lingerTimeout > 0 && ioManager.getPendingRequests().size() > 0) {
+                    Logger.message("NetworkManager :: " + componentName + " still has requests in flight. Checking it again later.");
+                    IdleConnectionManager.getManager().recheck(componentName, lingerTimeout);
+                } else if (lingerTimeout > 0) {
+                    long linger = ioManager.getLastActivity() + lingerTimeout - System.currentTimeMillis();
+                    IdleConnectionManager.getManager().markIdle(componentName, linger);
                 } else {
                     Logger.message("NetworkManager :: Socket io manager (" + componentName + ") is not having any job. Need to cleanup.");
                     ioManager.disconnectSocket();
@@ -169,65 +713,121 @@ public class NetworkManager implements SocketIoManagerListener, ConnectionListen
         }
     }
 
+    /**
+     * Method to close the connection of a component after its linger time
+     * @param componentName idle component
+     */
+    private synchronized void closeIdleComponent(String componentName) {
+        SocketIoManager ioManager = socketManager.get(componentName);
+        if (ioManager == null) {
+            return;
+        }
+        if (SubscriptionManager.getManager().hasSubscriptions(componentName)) {
+            Logger.message("NetworkManager :: " + componentName + " has event subscriptions. Keeping it open.");
+        } else if (ioManager.getPendingRequests().size() > 0) {
+            // not idle again. only checked after the linger time, so it is never evicted in a loop
+            Logger.message("NetworkManager :: " + componentName + " still has requests in flight. Keeping it open.");
+            IdleConnectionManager.getManager().recheck(componentName, lingerTimeout);
+        } else if (ioManager.isActive() || ioManager.isConnecting()) {
+            Logger.message("NetworkManager :: Closing idle " + componentName + " connection");
+            ioManager.disconnectSocket();
+        } else {
+            ioManager.clearSocketManager();
+            socketManager.remove(componentName);
+        }
+    }
+
+    /**
+     * Method to close all the connections when the network is gone. Waiting requests fail
+     * with EC_NETWORK_DOWN instead of waiting for their timeouts.
+     */
+    private void dropAllConnections() {
+        List<SocketIoManager> managers;
+        synchronized (this) {
+            managers = new ArrayList<>(socketManager.values());
+        }
+        Logger.message("NetworkManager :: Network is lost. Dropping " + managers.size() + " connection(s)");
+        for (SocketIoManager ioManager : managers) {
+            ioManager.dropConnection(getLocalizedString(EC_NETWORK_DOWN), EC_NETWORK_DOWN);
+        }
+    }
+
+    /**
+     * Method to move the connections to the new default network. Sockets of the old network
+     * are reconnected if the reconnection is enabled, else they are dropped.
+     */
+    private void moveAllConnections() {
+        List<SocketIoManager> managers;
+        synchronized (this) {
+            managers = new ArrayList<>(socketManager.values());
+        }
+        Logger.message("NetworkManager :: Network is changed. Moving " + managers.size() + " connection(s)");
+        for (SocketIoManager ioManager : managers) {
+            ioManager.onNetworkChanged();
+        }
+    }
+
     public void destroyAllSocketConnections() {
         Logger.method(this, "destroyAllSocketConnections");
         if (socketManager.size() == 0) {
             Logger.message("NetworkManager :: There is no socket connection to destroy");
             return;
         }
-        final Map<String, SocketIoManager> temp = new HashMap<>(socketManager);
-        final Set<String> allKeys = temp.keySet();
-        for (String key : allKeys) {
+        // key set of the concurrent map is weakly consistent. no copy is needed to remove while iterating
+        for (String key : socketManager.keySet()) {
             Logger.message("NetworkManager :: Found key " + key + " to destroy");
             destroySocketComponent(key);
         }
     }
 
+    @Override
+    public void didConnected(String componentName) {
+        Logger.method(this, "didConnected :: " + componentName);
+        if (dsComponentName.equals(componentName)) {
+            synchronized (this) {
+                dsFailoverCount = 0;
+            }
+        }
+        synchronized (subscriptionRetries) {
+            subscriptionRetries.remove(componentName);
+        }
+        notifyPrewarmWaiters(componentName, null, EC_SUCCESS_CODE);
+    }
+
     @Override
     public void didDisconnected(String componentName, String error, int errorCode) {
         Logger.method(this, "didDisconnected :: " + componentName);
+        if (componentName == null) {
+            return;
+        }
+        IdleConnectionManager.getManager().forget(componentName);
+        notifyPrewarmWaiters(componentName, (error != null) ? error : getLocalizedString(EC_NETWORK_ERROR), (error != null) ? errorCode : EC_NETWORK_ERROR);
+        boolean connectionFailed = errorCode == EC_CONNECTION_ERROR || errorCode == EC_CONNECTION_TIMEOUT;
+        if (connectionFailed && !componentName.equals(dsComponentName)) {
+            // cached lookup might be stale. next request has to ask the directory service again
+            ComponentCache.getManager().invalidate(componentName);
+        }
         SocketIoManager ioManager = socketManager.get(componentName);
+        if (ioManager != null && connectionFailed && dsComponentName.equals(componentName) && failoverDsLookups(ioManager)) {
+            return;
+        }
         if (ioManager != null) {
             if (error != null) {
-                Map<Integer, RequestInfo> tempPendingRequest = new HashMap<>(pendingRequests);
-                Logger.message("NetworkManager :: pending request :: " + tempPendingRequest);
                 Logger.error("NetworkManager :: onDisconnected :: Sending failure message to all available callback :: " + componentName);
-                if (componentName.equals(dsComponentName)) {
-                    pendingRequests.clear();
-                    Set<Integer> keys = tempPendingRequest.keySet();
-                    for (Integer key : keys) {
-                        RequestInfo request = tempPendingRequest.get(key);
-                        if (request != null) {
-                            Logger.message("NetworkManager :: onDisconnected :: ds :: requestInfo " + request.getComponentName() + " reqId " + request.getRequestId());
-                            sendFailureCallback(request, error, errorCode);
-                        } else {
-                            Logger.error("NetworkManager :: onDisconnected :: ds :: no request reference found for " + key);
-                        }
-                        // remove the request info from io manager
-                        ioManager.removeRequest(key);
-                    }
+                boolean isDs = componentName.equals(dsComponentName);
+                if (isDs) {
                     requestedComponents.clear();
-                } else {
-                    Set<Integer> keys = tempPendingRequest.keySet();
-                    for (Integer key : keys) {
-                        RequestInfo request = tempPendingRequest.get(key);
-                        if (request == null || request.getComponentName().equals(componentName)) {
-                            pendingRequests.remove(key);
-                        }
-                    }
-                    for (Integer key : keys) {
-                        RequestInfo request = tempPendingRequest.get(key);
-                        if (request != null) {
-                            Logger.message("NetworkManager :: onDisconnected :: requestInfo " + request.getComponentName() + " reqId " + request.getRequestId());
-                            if (request.getComponentName().equals(componentName)) {
-                                sendFailureCallback(request, error, errorCode);
-                                // remove the request info from io manager
-                                ioManager.removeRequest(key);
-                            }
-                        } else {
-                            Logger.error("NetworkManager :: onDisconnected :: no request reference found for " + key);
-                        }
-                    }
+                    requestedDevComponents.clear();
+                    componentLookups.clear();
+                }
+                // every pending request waits for a lookup. losing the directory service fails all of them
+                Map<Integer, RequestInfo> failedRequests = takePendingRequests(isDs ? null : componentName);
+                for (Map.Entry<Integer, RequestInfo> entry : failedRequests.entrySet()) {
+                    RequestInfo request = entry.getValue();
+                    Logger.message("NetworkManager :: onDisconnected :: requestInfo " + request.getComponentName() + " reqId " + request.getRequestId());
+                    sendFailureCallback(request, error, errorCode);
+                    // remove the request info from io manager
+                    ioManager.removeRequest(entry.getKey());
                 }
             }
             Logger.data("NetworkManager :: didDisconnected :: pendingRequests :: " + pendingRequests);
@@ -236,35 +836,46 @@ public class NetworkManager implements SocketIoManagerListener, ConnectionListen
             Logger.error("NetworkManager :: Socket io manager is not found for " + componentName);
         }
         socketManager.remove(componentName);
+        if (error != null) {
+            // a subscribed component has to stay connected, also after reconnectionFailed
+            retrySubscribedComponent(componentName, error, errorCode);
+        }
     }
 
     @Override
     public void onSuccess(Object response, int requestId) {
         Logger.method(this, "onSuccess for " + requestId);
-        final String componentName = requestedComponents.get(requestId);
         // going to parse the response
-        final Object object = getJsonObject(response);
+        onLookupResult(getJsonObject(response), requestId);
+    }
+
+    /**
+     * Method to handle the parsed directory service answer of a component
+     * @param object    ComponentInfo, RpcResponse or null if the answer could not be parsed
+     * @param requestId lookup request id of the component
+     */
+    private void onLookupResult(final Object object, int requestId) {
+        final String componentName = requestedComponents.get(requestId);
+        if (componentName == null) {
+            Logger.error("NetworkManager :: onLookupResult :: Lookup " + requestId + " is not pending anymore");
+            return;
+        }
         // got the parsed response
         if (object != null && object instanceof ComponentInfo) {
-            Map<Integer, RequestInfo> tempPendingRequest = new HashMap<>(pendingRequests);
-            Set<Integer> keys = tempPendingRequest.keySet();
-            for (Integer key : keys) {
-                RequestInfo request = tempPendingRequest.get(key);
-                if (request == null) {
-                    pendingRequests.remove(key);
-                    Logger.error("NetworkManager :: onSuccess :: no request reference found for " + key);
-                } else if (request.getComponentName().equals(componentName)) {
-                    pendingRequests.remove(key);
-                }
+            // remove component info from requested component stack. only one answer can claim the lookup
+            if (requestedComponents.remove(requestId) == null) {
+                Logger.error("NetworkManager :: onLookupResult :: Lookup " + requestId + " is already completed");
+                return;
             }
-            // remove component info from requested component stack
-            requestedComponents.remove(requestId);
+            componentLookups.remove(componentName, requestId);
+            boolean isDevComponent = Boolean.TRUE.equals(requestedDevComponents.remove(requestId));
+            Map<Integer, RequestInfo> tempPendingRequest = takePendingRequests(componentName);
+            LookupBackoff.getManager().reportSuccess(componentName, isDevComponent);
             Logger.message("NetworkManager :: Received component info for " + componentName);
             ComponentInfo componentInfo = (ComponentInfo) object;
             if (componentInfo.getSipPort() > 0) {
-                for (Integer key : keys) {
-                    RequestInfo request = tempPendingRequest.get(key);
-                    if (request != null && request.getComponentName().equals(componentName)) {
+                for (RequestInfo request : tempPendingRequest.values()) {
+                    if (!request.isWarmup()) {
                         Logger.message("NetworkManager :: onDisconnected :: requestInfo " + request.getComponentName() + " reqId " + request.getRequestId());
                         Logger.data("Sending callback for " + request.getListener());
                         sendSuccessCallback(request, componentInfo);
@@ -272,16 +883,14 @@ public class NetworkManager implements SocketIoManagerListener, ConnectionListen
                     }
                 }
             } else {
+                ComponentCache.getManager().put(componentName, isDevComponent, componentInfo);
                 // creating socket io manager to send request
                 SocketIoManager ioManager = new SocketIoManager(componentInfo, componentName, this);
                 socketManager.put(componentName, ioManager);
                 Logger.message("NetworkManager :: Going to send pending request to " + componentName);
-                for (Integer key : keys) {
-                    RequestInfo request = tempPendingRequest.get(key);
-                    if (request != null && request.getComponentName().equals(componentName)) {
-                        Logger.message("NetworkManager :: " + request.getComponentName() + " :: Sending request for request id :: " + request.getRequestId());
-                        ioManager.send(request);
-                    }
+                for (RequestInfo request : tempPendingRequest.values()) {
+                    Logger.message("NetworkManager :: " + request.getComponentName() + " :: Sending request for request id :: " + request.getRequestId());
+                    ioManager.send(request);
                 }
             }
         } else {
@@ -299,119 +908,108 @@ public class NetworkManager implements SocketIoManagerListener, ConnectionListen
     public void onFailure(final String error, final int errorCode, final int requestId) {
         Logger.method(this, "onFailure for " + requestId);
         Logger.data("NetworkManager :: Available requested components :: " + requestedComponents);
-        final String componentName = requestedComponents.get(requestId);
-        requestedComponents.remove(requestId);
+        // only the thread which removes the lookup fails its requests
+        final String componentName = requestedComponents.remove(requestId);
+        boolean isDevComponent = Boolean.TRUE.equals(requestedDevComponents.remove(requestId));
+        if (componentName == null) {
+            Logger.error("NetworkManager :: onFailure :: Lookup " + requestId + " is not pending anymore");
+            return;
+        }
+        componentLookups.remove(componentName, requestId);
+        if (errorCode != EC_NETWORK_DOWN) {
+            // a missing network is not a problem of the component. don't block the next lookup for it
+            LookupBackoff.getManager().reportFailure(componentName, isDevComponent, error, errorCode);
+        }
         Logger.error("NetworkManager :: happened for " + componentName);
         Logger.error("NetworkManager :: onFailure :: Sending failure message to all available callback :: " + componentName);
-        //
-        Map<Integer, RequestInfo> tempPendingRequest = new HashMap<>(pendingRequests);
-        Set<Integer> keys = new HashSet<>(tempPendingRequest.keySet());
-        for (Integer key : keys) {
-            RequestInfo request = tempPendingRequest.get(key);
-            if (request == null) {
-                pendingRequests.remove(key);
-                tempPendingRequest.remove(key);
-                Logger.error("NetworkManager :: onFailure :: no request reference found for " + key);
-            } else if (request.getComponentName().equals(componentName)) {
-                pendingRequests.remove(key);
-            } else if (!request.getComponentName().equals(componentName)) {
-                tempPendingRequest.remove(key);
-            }
-        }
+        Map<Integer, RequestInfo> tempPendingRequest = takePendingRequests(componentName);
         Logger.data("NetworkManager :: pendingRequests :: " + pendingRequests);
         sendFailureCallback(tempPendingRequest, error, errorCode);
     }
 
-    public void sendSuccessCallback(final RequestInfo requestInfo, final Object response) {
-        Logger.method(this, "sendSuccessCallback :: " + requestInfo.getRequestId());
-        if (getExceptionalTaskId().contains(requestInfo.getRequestId())) {
-            Logger.error("NetworkManager :: sendSuccessCallback :: Sending to exceptional available callback");
-            requestInfo.getListener().onSuccess(response, requestInfo.getRequestId());
-            return;
-        }
-        Activity activity = ViMoNetApplication.getApplication().getCurrentActivity();
-        if (activity != null) {
-            activity.runOnUiThread(new Runnable() {
-                @Override
-                public void run() {
-                    Logger.error("NetworkManager :: sendSuccessCallback :: Sending to available callback");
-                    requestInfo.getListener().onSuccess(response, requestInfo.getRequestId());
+    /**
+     * Method to add a request to the pending queue of its component
+     * @param info  request waiting for the lookup of its component
+     */
+    private void addPendingRequest(RequestInfo info) {
+        String componentName = info.getComponentName();
+        while (true) {
+            PendingQueue queue = pendingRequests.get(componentName);
+            if (queue == null) {
+                PendingQueue created = new PendingQueue();
+                queue = pendingRequests.putIfAbsent(componentName, created);
+                if (queue == null) {
+                    queue = created;
                 }
-            });
+            }
+            if (queue.offer(info)) {
+                return;
+            }
+            // queue is taken by a lookup answer meanwhile. start a new one
+            pendingRequests.remove(componentName, queue);
+        }
+    }
+
+    /**
+     * Method to take the pending requests of a component out of the pending request stack.
+     * The whole queue of the component is removed at once, so a request is never completed
+     * twice by the threads racing on it.
+     * @param componentName component of the requests, or null for all the pending requests
+     * @return              taken requests by wire id, in the order they were added
+     */
+    private Map<Integer, RequestInfo> takePendingRequests(String componentName) {
+        Map<Integer, RequestInfo> taken = new LinkedHashMap<>();
+        if (componentName != null) {
+            takePendingQueue(componentName, taken);
         } else {
-            Logger.error("NetworkManager :: sendSuccessCallback :: Looks like application is running in background");
-            if (getBackgroundTaskId().contains(requestInfo.getRequestId())) {
-                requestInfo.getListener().onSuccess(response, requestInfo.getRequestId());
+            for (String name : pendingRequests.keySet()) {
+                takePendingQueue(name, taken);
             }
         }
+        return taken;
+    }
+
+    private void takePendingQueue(String componentName, Map<Integer, RequestInfo> taken) {
+        PendingQueue queue = pendingRequests.remove(componentName);
+        if (queue == null) {
+            return;
+        }
+        for (RequestInfo request : queue.close()) {
+            taken.put(request.getWireId(), request);
+        }
+    }
+
+    public void sendSuccessCallback(final RequestInfo requestInfo, final Object response) {
+        Logger.method(this, "sendSuccessCallback :: " + requestInfo.getRequestId());
+        CallbackDispatcher.getManager().deliver(requestInfo, new Runnable() {
+            @Override
+            public void run() {
+                requestInfo.getListener().onSuccess(response, requestInfo.getRequestId());
+            }
+        });
     }
 
     public void sendFailureCallback(final Map<Integer, RequestInfo> requestList, final String error, final int errorCode) {
         Logger.method(this, "sendFailureCallback :: Request List :: " + requestList);
-        final Map<Integer, RequestInfo> temp = new HashMap<>(requestList);
-        Set<Integer> keys = requestList.keySet();
-        for (Integer key : keys) {
-            RequestInfo info = requestList.get(key);
-            if (getExceptionalTaskId().contains(info.getRequestId())) {
-                Logger.error("NetworkManager :: sendFailureCallback :: Sending to exceptional available callback :: " + info.getListener());
-                info.getListener().onFailure(error, errorCode, info.getRequestId());
-                temp.remove(key);
-            }
-        }
-        if (temp.size() == 0) {
+        if (requestList.size() == 0) {
             Logger.message("NetworkManager :: No more request found for callback");
             return;
         }
-        Activity activity = ViMoNetApplication.getApplication().getCurrentActivity();
-        if (activity != null) {
-            activity.runOnUiThread(new Runnable() {
-                @Override
-                public void run() {
-                    Logger.error("NetworkManager :: sendFailureCallback :: Sending failure message to available callback");
-                    Set<Integer> keys = temp.keySet();
-                    for (Integer key : keys) {
-                        RequestInfo request = temp.get(key);
-                        Logger.error("NetworkManager :: sendFailureCallback :: Sending to available callback (foreground) :: " + request.getListener());
-                        request.getListener().onFailure(error, errorCode, request.getRequestId());
-                    }
-                }
-            });
-        } else {
-            Logger.error("NetworkManager :: sendFailureCallback :: Looks like application is running in background");
-            Set<Integer> tempKeys = temp.keySet();
-            for (Integer key : tempKeys) {
-                RequestInfo request = temp.get(key);
-                if (getBackgroundTaskId().contains(request.getRequestId())) {
-                    Logger.error("NetworkManager :: sendFailureCallback :: Sending to available callback (background) :: " + request.getListener());
-                    request.getListener().onFailure(error, errorCode, request.getRequestId());
-                }
-            }
+        // main thread callbacks of the list are run together in the next frame
+        for (RequestInfo info : requestList.values()) {
+            sendFailureCallback(info, error, errorCode);
         }
     }
 
     public void sendFailureCallback(final RequestInfo requestInfo, final String error, final int errorCode) {
         Logger.method(this, "sendFailureCallback :: " + requestInfo.getRequestId());
-        if (getExceptionalTaskId().contains(requestInfo.getRequestId())) {
-            Logger.error("NetworkManager :: sendFailureCallback :: Sending to exceptional available callback :: " + requestInfo.getRequestId());
-            requestInfo.getListener().onFailure(error, errorCode, requestInfo.getRequestId());
-            return;
-        }
-        Activity activity = ViMoNetApplication.getApplication().getCurrentActivity();
-        if (activity != null) {
-            activity.runOnUiThread(new Runnable() {
-                @Override
-                public void run() {
-                    Logger.error("NetworkManager :: sendFailureCallback :: Sending failure message to available callback for req id :: " + requestInfo.getRequestId());
-                    requestInfo.getListener().onFailure(error, errorCode, requestInfo.getRequestId());
-                }
-            });
-        } else {
-            Logger.error("NetworkManager :: sendFailureCallback :: Looks like application is running in background");
-            if (getBackgroundTaskId().contains(requestInfo.getRequestId())) {
-                Logger.message("NetworkManager :: sendFailureCallback :: Sending background callback :: req :: " + requestInfo.getRequestId());
+        CallbackDispatcher.getManager().deliver(requestInfo, new Runnable() {
+            @Override
+            public void run() {
+                Logger.error("NetworkManager :: sendFailureCallback :: Sending failure message to callback for req id :: " + requestInfo.getRequestId());
                 requestInfo.getListener().onFailure(error, errorCode, requestInfo.getRequestId());
             }
-        }
+        });
     }
 
     /**
@@ -422,20 +1020,46 @@ public class NetworkManager implements SocketIoManagerListener, ConnectionListen
      * @param rpc           rpc to call
      * @param componentName component to send request
      * @param listener      listener for callback
+     * @param executor      executor for the callbacks, or null for the default delivery
      */
-    private synchronized void sendRequest(final RequestParam param, final int requestId, final int timeout, final String rpc, final String componentName, final ConnectionListener listener) {
+    private RequestInfo sendRequest(final RequestParam param, final int requestId, final int timeout, final String rpc, final String componentName, final ConnectionListener listener, final Executor executor) {
         Logger.method(this, "sendRequest :: " + requestId + " ::    component :: " + componentName);
         if (!isNetworkAvailable()) {
             Logger.error("NetworkManager :: Network is not available");
             listener.onFailure(getLocalizedString(EC_NETWORK_DOWN), EC_NETWORK_DOWN, requestId);
-            return;
+            return null;
         }
         if (isAirplaneModeOn(applicationContext)) {
             Logger.error("NetworkManager :: Looks like user kept the phone in airplane mode");
             listener.onFailure(getLocalizedString(EC_NETWORK_DOWN), EC_NETWORK_DOWN, requestId);
-            return;
+            return null;
         }
+        boolean idempotent = param.isAvailable(IDEMPOTENT_REQUEST);
+        param.removeValue(IDEMPOTENT_REQUEST);
         // check whether the component is available or not
+        SocketIoManager ioManager = socketManager.get(componentName);
+        IdleConnectionManager.getManager().touch(componentName);
+        if (ioManager != null && ioManager.hasSocketInstance() && (ioManager.isActive() || ioManager.isConnecting())) {
+            // fast path. the connection is up, no need to take the manager lock
+            Logger.message("NetworkManager :: " + componentName + " :: Sending request for :: " + requestId);
+            RequestInfo info = new RequestInfo(componentName, rpc, requestId, timeout, param, listener);
+            info.setIdempotent(idempotent);
+            info.setCallbackExecutor(executor);
+            ioManager.send(info);
+            return info;
+        }
+        synchronized (this) {
+            return sendRequestLocked(param, requestId, timeout, rpc, componentName, listener, idempotent, executor);
+        }
+    }
+
+    /**
+     * Method to send a request of a component which is not connected yet. Caller holds the manager lock
+     * @param idempotent    true if the request can be sent again after a reconnection
+     * @param executor      executor for the callbacks, or null for the default delivery
+     * @return              request sent or queued, or null if it failed right away
+     */
+    private RequestInfo sendRequestLocked(final RequestParam param, final int requestId, final int timeout, final String rpc, final String componentName, final ConnectionListener listener, boolean idempotent, Executor executor) {
         SocketIoManager ioManager = socketManager.get(componentName);
         if (ioManager != null) {
             if (!ioManager.hasSocketInstance() || (!ioManager.isActive() && !ioManager.isConnecting())) {
@@ -451,111 +1075,447 @@ public class NetworkManager implements SocketIoManagerListener, ConnectionListen
             // First, app should connect to the particular socket component
             boolean isDevComponent = param.isAvailable(IS_DEV_COMPONENT);
             param.removeValue(IS_DEV_COMPONENT);
-            if (!pendingRequests.containsKey(requestId)) {
-                Logger.message("Network Manager :: adding " + requestId + " to pending request stack (" + componentName + ")");
-                RequestInfo pendingRequestInfo = new RequestInfo(componentName, rpc, requestId, timeout, (param.isAvailable(SIP_COMPONENT) ? null : param), listener);
-                pendingRequests.put(requestId, pendingRequestInfo);
-            } else {
-                Logger.error("Network Manager :: Got duplicate request :: " + requestId);
-                return;
+            ComponentInfo cachedInfo = param.isAvailable(SIP_COMPONENT) ? null : ComponentCache.getManager().get(componentName, isDevComponent);
+            if (cachedInfo != null) {
+                Logger.message("NetworkManager :: Using cached component info for " + componentName + ". Skipping directory service lookup.");
+                ioManager = new SocketIoManager(cachedInfo, componentName, this);
+                socketManager.put(componentName, ioManager);
+                RequestInfo info = new RequestInfo(componentName, rpc, requestId, timeout, param, listener);
+                info.setIdempotent(idempotent);
+                info.setCallbackExecutor(executor);
+                ioManager.send(info);
+                return info;
             }
-            if (isAlreadyRequested(componentName)) {
-                Logger.message("NetworkManager :: Already there is a pending request for this requested component " + componentName);
-            } else {
-                int componentRequestId = (new Random()).nextInt(dsLookupRequestIdLimit * -1) * -1 - dsLookupRequestIdLimit;
-                requestedComponents.put(componentRequestId, componentName);
-                Logger.data("NetworkManager :: Requested components :: " + requestedComponents);
-                // check directory service connection whether it is available or not
-                SocketIoManager dsManager = socketManager.get(dsComponentName);
-                if (dsManager != null && !dsManager.hasSocketInstance()) {
-                    dsManager.clearSocketManager();
-                    socketManager.remove(dsComponentName);
-                    dsManager = null;
-                }
-                // creating the request object
-                RequestParam dsParam = RequestParam.myRequest();
-                dsParam.addParam("componentName", componentName);
-                if (isDevComponent) {
-                    dsParam.addParam("componentStatus", "dev");
-                }
-                if (param.isAvailable(SIP_COMPONENT)) {
-                    JSONObject object = param.getObject();
-                    try {
-                        Iterator<String> keys = object.keys();
-                        while (keys.hasNext()) {
-                            String key = keys.next();
-                            if (object.get(key) instanceof String) {
-                                dsParam.addParam(key, object.getString(key));
-                            }
-                        }
-                    } catch (JSONException e) {
-                        Logger.error("Networkmanager :: Json error :: " + e.getMessage());
-                    }
-                }
-                RequestInfo info = new RequestInfo(componentName, getDsComponentRpc(), componentRequestId, default_timeout, dsParam, this);
-                // directory service connection is not available
-                // trying to create now
-                if (dsManager == null) {
-                    Logger.message("NetworkManager :: Creating socket io manager for directory service lookup.");
-                    directoryServiceInfo.setDomain(DsDomainManager.getManager().myDomain());
-                    dsManager = new SocketIoManager(directoryServiceInfo, dsComponentName, this);
-                    socketManager.put(dsComponentName, dsManager);
-                }
-                Logger.message("NetworkManager :: Sending directory service lookup for " + componentName + " with request id :: " + componentRequestId);
-                // sending request to get component info
-                dsManager.send(info);
+            LookupBackoff.Failure failure = LookupBackoff.getManager().get(componentName, isDevComponent);
+            if (failure != null) {
+                Logger.error("NetworkManager :: Lookup of " + componentName + " failed recently. Failing " + requestId + " for the next " + failure.getRemainingTime() + " ms");
+                listener.onFailure(failure.getError(), failure.getErrorCode(), requestId);
+                return null;
             }
+            // pending requests are kept by wire id. same request id can be in flight on several components
+            RequestInfo pendingRequestInfo = new RequestInfo(componentName, rpc, requestId, timeout, (param.isAvailable(SIP_COMPONENT) ? null : param), listener);
+            pendingRequestInfo.setIdempotent(idempotent);
+            pendingRequestInfo.setCallbackExecutor(executor);
+            Logger.message("Network Manager :: adding " + requestId + " (wire id " + pendingRequestInfo.getWireId() + ") to pending request stack (" + componentName + ")");
+            addPendingRequest(pendingRequestInfo);
+            requestLookup(componentName, isDevComponent, param);
+            return pendingRequestInfo;
         } else {
             Logger.message("NetworkManager :: " + componentName + " :: Sending request for :: " + requestId);
             // component is available
             RequestInfo info = new RequestInfo(componentName, rpc, requestId, timeout, param, listener);
+            info.setIdempotent(idempotent);
+            info.setCallbackExecutor(executor);
             ioManager.send(info);
+            return info;
         }
     }
 
     /**
-     * Method to check whether a request sent to directory service or not
-     * @param componentName name to do directory service lookup
-     * @return  true if the name exist in requestedComponents, else false
+     * Method to drop a request which nobody waits for anymore. A late answer of the request is ignored.
+     * @param info  request to drop
      */
-    private boolean isAlreadyRequested(String componentName) {
-        for (int index = 0; index < requestedComponents.size(); index++) {
-            if (requestedComponents.valueAt(index).equals(componentName)) {
-                return true;
+    private void cancelRequest(RequestInfo info) {
+        Logger.method(this, "cancelRequest :: " + info.getRequestId() + " :: component :: " + info.getComponentName());
+        PendingQueue queue = pendingRequests.get(info.getComponentName());
+        if (queue != null && queue.remove(info)) {
+            return;
+        }
+        SocketIoManager ioManager = socketManager.get(info.getComponentName());
+        if (ioManager != null) {
+            ioManager.cancelRequest(info.getWireId());
+        }
+    }
+
+    /**
+     * Method to start the directory service lookup of a component, unless one is already running
+     * @param componentName  component to look up
+     * @param isDevComponent true for the dev version of the component
+     * @param param          request param. String values of SIP requests are forwarded to the lookup
+     */
+    private void requestLookup(String componentName, boolean isDevComponent, RequestParam param) {
+        int componentRequestId = RequestIdAllocator.nextLookupId();
+        Integer runningLookup = componentLookups.putIfAbsent(componentName, componentRequestId);
+        if (runningLookup != null) {
+            Logger.message("NetworkManager :: Already there is a pending request (" + runningLookup + ") for this requested component " + componentName);
+            return;
+        }
+        requestedComponents.put(componentRequestId, componentName);
+        requestedDevComponents.put(componentRequestId, isDevComponent);
+        Logger.data("NetworkManager :: Requested components :: " + requestedComponents);
+        boolean isSip = (param != null && param.isAvailable(SIP_COMPONENT));
+        if (batchLookupWindow > 0 && !isSip) {
+            queueBatchLookup(componentRequestId, isDevComponent);
+            return;
+        }
+        // creating the request object
+        RequestParam dsParam = RequestParam.myRequest();
+        dsParam.addParam("componentName", componentName);
+        if (isDevComponent) {
+            dsParam.addParam("componentStatus", "dev");
+        }
+        if (isSip) {
+            JSONObject object = param.getObject();
+            try {
+                Iterator<String> keys = object.keys();
+                while (keys.hasNext()) {
+                    String key = keys.next();
+                    if (object.get(key) instanceof String) {
+                        dsParam.addParam(key, object.getString(key));
+                    }
+                }
+            } catch (JSONException e) {
+                Logger.error("Networkmanager :: Json error :: " + e.getMessage());
             }
         }
-        return false;
+        RequestInfo info = new RequestInfo(componentName, getDsComponentRpc(), componentRequestId, default_timeout, dsParam, this);
+        Logger.message("NetworkManager :: Sending directory service lookup for " + componentName + " with request id :: " + componentRequestId);
+        // sending request to get component info
+        sendDsLookup(info);
     }
 
+    /**
+     * Method to send a lookup to the directory service. Creates the directory service connection if needed.
+     * @param info  lookup request
+     */
+    private void sendDsLookup(RequestInfo info) {
+        // check directory service connection whether it is available or not
+        SocketIoManager dsManager = socketManager.get(dsComponentName);
+        if (dsManager != null && !dsManager.hasSocketInstance()) {
+            dsManager.clearSocketManager();
+            socketManager.remove(dsComponentName);
+            dsManager = null;
+        }
+        // directory service connection is not available
+        // trying to create now
+        if (dsManager == null) {
+            Logger.message("NetworkManager :: Creating socket io manager for directory service lookup.");
+            directoryServiceInfo.setDomain(DsDomainManager.getManager().myDomain());
+            dsManager = new SocketIoManager(directoryServiceInfo, dsComponentName, this);
+            socketManager.put(dsComponentName, dsManager);
+        }
+        dsManager.send(info);
+    }
+
+    /**
+     * Method to move the running lookups to the next directory service domain after a connection error
+     * @param dsManager failed directory service manager
+     * @return          true if the lookups are sent again, false if there is no domain left to try
+     */
+    private synchronized boolean failoverDsLookups(SocketIoManager dsManager) {
+        if (connectionRacingEnabled) {
+            // every domain was already part of the connection race
+            return false;
+        }
+        if (dsFailoverCount >= DsDomainManager.getManager().getDomainCount() - 1) {
+            Logger.error("NetworkManager :: All directory service domains failed");
+            dsFailoverCount = 0;
+            return false;
+        }
+        dsFailoverCount++;
+        List<RequestInfo> lookups = dsManager.getPendingRequests();
+        dsManager.clearSocketManager();
+        socketManager.remove(dsComponentName);
+        Logger.message("NetworkManager :: Directory service connection failed. Retrying " + lookups.size() + " lookup(s) on next domain (attempt " + dsFailoverCount + ")");
+        for (RequestInfo lookup : lookups) {
+            sendDsLookup(lookup);
+        }
+        return true;
+    }
+
+    /**
+     * Method to add a lookup to the next batch. First lookup of a batch schedules the flush.
+     * @param componentRequestId lookup request id of the component
+     * @param isDevComponent     true for the dev version of the component
+     */
+    private void queueBatchLookup(int componentRequestId, boolean isDevComponent) {
+        Logger.message("NetworkManager :: Queued directory service lookup " + componentRequestId + " for batch");
+        if (isDevComponent) {
+            batchedDevLookups.add(componentRequestId);
+        } else {
+            batchedLookups.add(componentRequestId);
+        }
+        if (!batchFlushScheduled) {
+            batchFlushScheduled = true;
+            TimeoutManager.getManager().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flushBatchLookups();
+                }
+            }, batchLookupWindow);
+        }
+    }
+
+    /**
+     * Method to send all the queued lookups. One request is sent for the normal and one for the dev components.
+     */
+    private synchronized void flushBatchLookups() {
+        batchFlushScheduled = false;
+        sendBatchLookup(batchedLookups, false);
+        sendBatchLookup(batchedDevLookups, true);
+        batchedLookups = new ArrayList<>();
+        batchedDevLookups = new ArrayList<>();
+    }
+
+    private void sendBatchLookup(List<Integer> lookupIds, boolean isDevComponent) {
+        List<Integer> validIds = new ArrayList<>();
+        List<String> componentNames = new ArrayList<>();
+        for (Integer lookupId : lookupIds) {
+            // lookup can be failed already by a directory service disconnection
+            String componentName = requestedComponents.get(lookupId);
+            if (componentName != null) {
+                validIds.add(lookupId);
+                componentNames.add(componentName);
+            }
+        }
+        if (validIds.isEmpty()) {
+            return;
+        }
+        if (validIds.size() == 1) {
+            // nothing to merge. use the single lookup rpc
+            RequestParam dsParam = RequestParam.myRequest();
+            dsParam.addParam("componentName", componentNames.get(0));
+            if (isDevComponent) {
+                dsParam.addParam("componentStatus", "dev");
+            }
+            sendDsLookup(new RequestInfo(componentNames.get(0), getDsComponentRpc(), validIds.get(0), default_timeout, dsParam, this));
+            return;
+        }
+        RequestParam dsParam = RequestParam.myRequest();
+        dsParam.addParam("componentNames", componentNames);
+        if (isDevComponent) {
+            dsParam.addParam("componentStatus", "dev");
+        }
+        int batchRequestId = RequestIdAllocator.nextLookupId();
+        Logger.message("NetworkManager :: Sending batched directory service lookup " + batchRequestId + " for " + componentNames);
+        sendDsLookup(new RequestInfo(dsComponentName, dsBatchComponentRpc, batchRequestId, default_timeout, dsParam, new BatchLookupListener(validIds, componentNames)));
+    }
+
+    /**
+     * Tracks the components of one prewarm() call and reports them to the caller on the main thread.
+     */
+    private class PrewarmTask implements ConnectionListener {
+        private final List<String> components;
+        private final PrewarmListener listener;
+        /* written by prewarm(), read by the failure callback on the socket thread */
+        private final Map<Integer, String> warmupRequests = new ConcurrentHashMap<>();
+        private final Set<String> finished = new HashSet<>();
+        private final List<String> readyComponents = new ArrayList<>();
+        private final List<String> failedComponents = new ArrayList<>();
+
+        PrewarmTask(List<String> components, PrewarmListener listener) {
+            this.components = components;
+            this.listener = listener;
+        }
+
+        void componentReady(final String componentName) {
+            synchronized (this) {
+                if (!finished.add(componentName)) {
+                    return;
+                }
+                readyComponents.add(componentName);
+            }
+            deliver(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onComponentReady(componentName);
+                }
+            });
+            checkFinished();
+        }
+
+        void componentFailed(final String componentName, final String error, final int errorCode) {
+            synchronized (this) {
+                if (!finished.add(componentName)) {
+                    return;
+                }
+                failedComponents.add(componentName);
+            }
+            deliver(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onComponentFailed(componentName, error, errorCode);
+                }
+            });
+            checkFinished();
+        }
+
+        private void checkFinished() {
+            final List<String> ready;
+            final List<String> failed;
+            synchronized (this) {
+                if (finished.size() != components.size()) {
+                    return;
+                }
+                ready = new ArrayList<>(readyComponents);
+                failed = new ArrayList<>(failedComponents);
+            }
+            deliver(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onPrewarmFinished(ready, failed);
+                }
+            });
+        }
+
+        private void deliver(Runnable runnable) {
+            CallbackDispatcher.getManager().deliver(runnable);
+        }
+
+        /* lookup of a placeholder request failed */
+
+        @Override
+        public void onSuccess(Object response, int requestId) {
+            Logger.method(this, "prewarm :: onSuccess :: " + requestId);
+        }
+
+        @Override
+        public void onFailure(String error, int errorCode, int requestId) {
+            String componentName = warmupRequests.get(requestId);
+            if (componentName != null) {
+                synchronized (NetworkManager.this) {
+                    List<PrewarmTask> waiters = prewarmWaiters.get(componentName);
+                    if (waiters != null) {
+                        waiters.remove(this);
+                    }
+                }
+                componentFailed(componentName, error, errorCode);
+            }
+        }
+    }
+
+    /**
+     * Listener for a batched lookup. Fans out the answer to the lookups of the single components.
+     */
+    private class BatchLookupListener implements ConnectionListener {
+        private final List<Integer> lookupIds;
+        private final List<String> componentNames;
+
+        BatchLookupListener(List<Integer> lookupIds, List<String> componentNames) {
+            this.lookupIds = lookupIds;
+            this.componentNames = componentNames;
+        }
+
+        @Override
+        public void onSuccess(Object response, int requestId) {
+            Logger.method(this, "onSuccess for batch " + requestId);
+            Object object = getBatchJsonObject(response);
+            if (object instanceof List) {
+                Map<String, ComponentInfo> infoByName = new HashMap<>();
+                for (Object item : (List) object) {
+                    ComponentInfo info = (ComponentInfo) item;
+                    if (info.getComponentName() != null) {
+                        infoByName.put(info.getComponentName(), info);
+                    }
+                }
+                for (int index = 0; index < lookupIds.size(); index++) {
+                    // a component missing in the answer is handled as invalid response
+                    onLookupResult(infoByName.get(componentNames.get(index)), lookupIds.get(index));
+                }
+            } else {
+                for (Integer lookupId : lookupIds) {
+                    onLookupResult(object, lookupId);
+                }
+            }
+        }
+
+        @Override
+        public void onFailure(String error, int errorCode, int requestId) {
+            Logger.method(this, "onFailure for batch " + requestId);
+            for (Integer lookupId : lookupIds) {
+                NetworkManager.this.onFailure(error, errorCode, lookupId);
+            }
+        }
+    }
+
+
 
 
     /**
      * Method to decrypt response and create object
      * @param response  data got from server for RPC request
-     * @return          returns parsed object after the decryption
+     * @return          returns parsed object after the decryption, or null if the response can not be parsed
      */
     private Object getJsonObject(Object response) {
         try {
-            String ecryptedData = ((JSONObject) response).getString("response");
             if (BuildConfig.isDeveloperMode) {
-                Logger.data("NetworkManager :: Encrypted Data :: " + ecryptedData);
+                Logger.data("NetworkManager :: Encrypted Data :: " + ((JSONObject) response).get(EnvelopeCodec.KEY_RESPONSE));
             }
-            String decryptedData = VimoEncryption.decrypt(ecryptedData);
+            byte[] decryptedData = EnvelopeCodec.decryptResponseBytes(response);
             if (BuildConfig.isDeveloperMode) {
-                Logger.data("NetworkManager :: Decrypted Data :: " + decryptedData);
+                Logger.data("NetworkManager :: Decrypted Data :: " + new String(decryptedData, VimoEncryption.DEFAULT_CODING));
             }
-            JSONObject temp = new JSONObject(decryptedData);
-            int statusCode = temp.getInt("status");
-            Gson gson = new Gson();
-            return gson.fromJson(temp.toString(), ((statusCode == NetworkCodes.EC_SUCCESS_CODE) ? ComponentInfo.class : RpcResponse.class));
-        } catch (JSONException e) {
-            e.printStackTrace();
-            Logger.error("NetworkManager :: JSONException :: getJsonObject :: " + e.getMessage());
-            return e;
+            return ResponseDecoder.decodeLookup(decryptedData);
         } catch (Exception e) {
             e.printStackTrace();
             Logger.error("NetworkManager :: Exception :: getJsonObject :: " + e.getMessage());
-            return e;
+            return null;
+        }
+    }
+
+    /**
+     * Method to decrypt a batched lookup response
+     * @param response  data got from server for the batched lookup
+     * @return          list of ComponentInfo, RpcResponse on error, or null if the response can not be parsed
+     */
+    private Object getBatchJsonObject(Object response) {
+        try {
+            return ResponseDecoder.decodeLookupList(EnvelopeCodec.decryptResponseBytes(response));
+        } catch (Exception e) {
+            e.printStackTrace();
+            Logger.error("NetworkManager :: Exception :: getBatchJsonObject :: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Prewarm listener of the connections opened for the subscriptions. Only logs the result
+     */
+    private class SubscriptionPrewarmListener implements PrewarmListener {
+        @Override
+        public void onComponentReady(String componentName) {
+            Logger.message("NetworkManager :: " + componentName + " is connected for its subscriptions");
+        }
+
+        @Override
+        public void onComponentFailed(String componentName, String error, int errorCode) {
+            Logger.error("NetworkManager :: Could not connect " + componentName + " for its subscriptions :: " + error);
+            retrySubscribedComponent(componentName, error, errorCode);
+        }
+
+        @Override
+        public void onPrewarmFinished(List<String> readyComponents, List<String> failedComponents) {
+        }
+    }
+
+    /**
+     * FIFO queue of the requests of one component waiting for its lookup. Once taken, the queue is
+     * closed and refuses new requests, so no request is left behind in a queue nobody reads.
+     */
+    private static class PendingQueue {
+        private final List<RequestInfo> requests = new ArrayList<>();
+        private boolean closed = false;
+
+        synchronized boolean offer(RequestInfo info) {
+            if (closed) {
+                return false;
+            }
+            requests.add(info);
+            return true;
+        }
+
+        synchronized boolean remove(RequestInfo info) {
+            return !closed && requests.remove(info);
+        }
+
+        synchronized List<RequestInfo> close() {
+            closed = true;
+            return requests;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return requests.toString();
         }
     }
 }
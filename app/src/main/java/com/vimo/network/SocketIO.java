@@ -5,12 +5,16 @@ import android.util.SparseArray;
 import com.vimo.network.helper.Logger;
 import com.vimo.network.listener.NetworkCodes;
 import com.vimo.network.listener.SocketListener;
-import com.vimo.network.manager.VimoEncryption;
+import com.vimo.network.manager.EnvelopeCodec;
+import com.vimo.network.manager.TimeoutManager;
 import com.vimo.network.model.RequestInfo;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import io.socket.client.Ack;
 import io.socket.client.IO;
 import io.socket.client.Socket;
@@ -22,7 +26,7 @@ import io.socket.engineio.client.transports.WebSocket;
  */
 
 public class SocketIO implements NetworkCodes {
-    private SparseArray<Thread> stackForTimeoutThread = new SparseArray<>();
+    private final SparseArray<TimeoutTask> stackForTimeout = new SparseArray<>();
     private IO.Options options = new IO.Options();
     private Socket socket;
     private SocketListener listener;
@@ -31,7 +35,22 @@ public class SocketIO implements NetworkCodes {
     private String componentName;
     private boolean isSecure;
     private boolean disconnectedByApp;
+    private boolean binaryEnvelope;
+    private boolean multiplexed;
+    private int compressionThreshold = EnvelopeCodec.COMPRESSION_DISABLED;
     private int socketStatus;
+    private long connectStartTime;
+    private long connectLatency = -1;
+    private final Object heartbeatLock = new Object();
+    private int heartbeatInterval = 0;
+    private int maxMissedBeats = 2;
+    private TimeoutManager.Timeout heartbeatTimeout = null;
+    private int beatSequence = 0;
+    private boolean beatPending = false;
+    private int missedBeats = 0;
+    private volatile double smoothedRtt = -1;
+    private static final String EVENT_HEARTBEAT = "heartbeat";
+    private static final double RTT_WEIGHT = 0.125;      // weight of the newest sample, same as the TCP estimator
 
     /** PUBLIC PROPERTY */
     public static final int SOCKET_NONE = 0;
@@ -53,6 +72,105 @@ public class SocketIO implements NetworkCodes {
         return socketStatus;
     }
 
+    /**
+     * Method to hand over the socket events to another listener
+     * @param listener  new listener for the socket events
+     */
+    public void setListener(SocketListener listener) {
+        this.listener = listener;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Method to get the time taken by the last connect
+     * @return  connect time in milli seconds, or -1 if the socket is not connected yet
+     */
+    public long getConnectLatency() {
+        return connectLatency;
+    }
+
+    /**
+     * Method to enable the application level heartbeat. The component has to acknowledge the
+     * "heartbeat" event. The connection is declared dead after maxMissedBeats unanswered beats.
+     * @param heartbeatInterval time between two beats in milli seconds. 0 disables the heartbeat
+     * @param maxMissedBeats    unanswered beats in a row before the connection is dead
+     */
+    public void setHeartbeat(int heartbeatInterval, int maxMissedBeats) {
+        this.heartbeatInterval = heartbeatInterval;
+        this.maxMissedBeats = Math.max(1, maxMissedBeats);
+    }
+
+    /**
+     * Method to get the smoothed round trip time measured by the heartbeat
+     * @return  round trip time in milli seconds, or -1 if there is no measurement
+     */
+    public long getSmoothedRtt() {
+        return (long) smoothedRtt;
+    }
+
+    /**
+     * Method to get the number of requests waiting for an answer on this socket
+     * @return  requests in flight
+     */
+    public int getInFlightCount() {
+        synchronized (stackForTimeout) {
+            return stackForTimeout.size();
+        }
+    }
+
+    /**
+     * Method to stop waiting for the answer of a request. A late answer is still
+     * given to the listener, which has already forgotten the request.
+     * @param wireId    wire id of the request
+     */
+    public void cancel(int wireId) {
+        Logger.message("SocketIO :: Cancelling request " + wireId + " of " + componentName);
+        removeTimeout(wireId);
+    }
+
+    /**
+     * Method to get the wire ids of the requests waiting for an answer on this socket
+     * @return  wire ids of the requests in flight
+     */
+    public List<Integer> getInFlightIds() {
+        synchronized (stackForTimeout) {
+            List<Integer> ids = new ArrayList<>(stackForTimeout.size());
+            for (int index = 0; index < stackForTimeout.size(); index++) {
+                ids.add(stackForTimeout.keyAt(index));
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Method to choose the payload format for the requests.
+     * Binary envelope has to be supported by the component, else hex string is used.
+     * @param binaryEnvelope true to send encrypted payload as binary attachment
+     */
+    public void setBinaryEnvelope(boolean binaryEnvelope) {
+        this.binaryEnvelope = binaryEnvelope;
+    }
+
+    /**
+     * Method to share the engine.io connection with the other components on the same host and port.
+     * The component is then reached through its socket.io namespace ("/componentName").
+     * @param multiplexed true to use the shared connection, false to open an own connection
+     */
+    public void setMultiplexed(boolean multiplexed) {
+        this.multiplexed = multiplexed;
+    }
+
+    /**
+     * Method to enable payload compression for the requests
+     * @param compressionThreshold minimum payload size in bytes to compress, or EnvelopeCodec.COMPRESSION_DISABLED
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
     /**
      * Method to make socket connection
      */
@@ -63,12 +181,19 @@ public class SocketIO implements NetworkCodes {
             return;
         }
         socketStatus = SOCKET_CONNECTING;
+        connectStartTime = System.nanoTime();
         options.reconnection = false;
-        options.forceNew = true;
+        options.forceNew = !multiplexed;
+        options.multiplex = multiplexed;
         options.transports = new String[]{WebSocket.NAME};
         // create socket connection
         try {
-            socket = IO.socket("http://" + host + ":" + port, options);
+            String uri = "http://" + host + ":" + port;
+            if (multiplexed) {
+                // socket.io reuses the connection of the host and opens the namespace of the component on it
+                uri = uri + "/" + componentName;
+            }
+            socket = IO.socket(uri, options);
         } catch (Exception e) {
             Logger.error(e.getLocalizedMessage());
         }
@@ -86,40 +211,39 @@ public class SocketIO implements NetworkCodes {
     }
 
     /**
-     * Method to send request to server
+     * Method to send request to server. The wire id of the request is sent as "reqid",
+     * so all the callbacks of this class carry the wire id.
      * @param requestInfo request parameter
      */
     public void send(final RequestInfo requestInfo) {
         JSONObject reqObj;
-        String encryptedRequestData;
         try {
             if (BuildConfig.isDeveloperMode) {
                 Logger.data("REQUEST DATA :: " + requestInfo.getParam().json());
             }
-            encryptedRequestData = VimoEncryption.encrypt(requestInfo.getParam().json());
-        } catch (Exception e) {
-            onFailure(NetworkManager.getManager().getLocalizedString(EC_REQUEST_ERROR), EC_REQUEST_ERROR, requestInfo.getRequestId());
-            return;
-        }
-        try {
-            reqObj = new JSONObject();
-            reqObj.put("reqid", requestInfo.getRequestId());
-            reqObj.put("rpc", requestInfo.getRpc());
-            reqObj.put("hasSalt", isSecure);
-            reqObj.put("data", encryptedRequestData);
+            reqObj = EnvelopeCodec.createRequest(requestInfo, isSecure, binaryEnvelope, compressionThreshold);
         } catch (JSONException e) {
             Logger.error("SocketIO :: JSON exception :: " + e.getLocalizedMessage());
-            onFailure(NetworkManager.getManager().getLocalizedString(EC_REQUEST_ERROR), EC_REQUEST_ERROR, requestInfo.getRequestId());
+            onFailure(NetworkManager.getManager().getLocalizedString(EC_REQUEST_ERROR), EC_REQUEST_ERROR, requestInfo.getWireId());
+            return;
+        } catch (Exception e) {
+            onFailure(NetworkManager.getManager().getLocalizedString(EC_REQUEST_ERROR), EC_REQUEST_ERROR, requestInfo.getWireId());
             return;
         }
-        // timeout thread for each request
-        Thread thread = new Thread(new TimeoutThread(requestInfo.getRequestId(), requestInfo.getTimeout()));
-        thread.start();
-        stackForTimeoutThread.put(requestInfo.getRequestId(), thread);
+        // timeout for each request on the shared timeout wheel
+        TimeoutTask task = new TimeoutTask(requestInfo.getWireId());
+        synchronized (stackForTimeout) {
+            TimeoutTask previous = stackForTimeout.get(requestInfo.getWireId());
+            if (previous != null) {
+                previous.timeout.cancel();
+            }
+            task.timeout = TimeoutManager.getManager().schedule(task, requestInfo.getRemainingTime());
+            stackForTimeout.put(requestInfo.getWireId(), task);
+        }
         socket.emit("req", reqObj, new Ack() {
             @Override
             public void call(Object... args) {
-                Logger.message("SocketIO :: Got ack from server for request :: " + requestInfo.getRequestId());
+                Logger.message("SocketIO :: Got ack from server for request :: " + requestInfo.getWireId());
             }
         });
     }
@@ -132,6 +256,7 @@ public class SocketIO implements NetworkCodes {
      * Method to disconnect the socket connection
      */
     public void disconnect() {
+        stopHeartbeat();
         if (socket != null) {
             socketStatus = SOCKET_DISCONNECTING;
             disconnectedByApp = true;
@@ -149,8 +274,26 @@ public class SocketIO implements NetworkCodes {
         return disconnectedByApp;
     }
 
+    /**
+     * Method to close the socket silently. No callback is sent to the listener.
+     */
+    public void abort() {
+        Logger.method(this, "abort :: " + host + " :: " + componentName);
+        stopHeartbeat();
+        clearTimeouts();
+        listener = null;
+        disconnectedByApp = true;
+        socketStatus = SOCKET_DISCONNECTED;
+        if (socket != null) {
+            socket.off();
+            socket.disconnect();
+            socket = null;
+        }
+    }
+
     public void clearConnection() {
-        clearTimeoutThreads();
+        stopHeartbeat();
+        clearTimeouts();
         clearSocketCallback();
         host = null;
         listener = null;
@@ -180,12 +323,14 @@ public class SocketIO implements NetworkCodes {
             @Override
             public void call(Object... args) {
                 Logger.message("SocketIO :: Socket connected with " + componentName + " component");
+                connectLatency = (System.nanoTime() - connectStartTime) / 1000000L;
                 socketStatus = SOCKET_CONNECTED;
                 if (args != null) {
                     for (Object obj : args) {
                         Logger.message("CONNECTED :: args :: " + obj);
                     }
                 }
+                startHeartbeat();
                 listener.onConnected(componentName);
             }
         });
@@ -222,6 +367,7 @@ public class SocketIO implements NetworkCodes {
             @Override
             public void call(Object... args) {
                 socketStatus = SOCKET_DISCONNECTED;
+                stopHeartbeat();
                 if (args != null) {
                     for (Object obj : args) {
                         Logger.message("DISCONNECTED :: args :: " + obj);
@@ -259,7 +405,7 @@ public class SocketIO implements NetworkCodes {
                         Logger.error("SocketIO :: Error occurred while parsing response");
                     }
                     if (requestId != -1) {
-                        removeTimeoutThread(requestId);
+                        removeTimeout(requestId);
                         listener.onSuccess(componentName, args[0], requestId);
                     } else {
                         Logger.error("SocketIO :: ARGS :: Received invalid response from component " + componentName);
@@ -280,6 +426,9 @@ public class SocketIO implements NetworkCodes {
                     for (Object obj : args) {
                         Logger.message("EVENT_MESSAGE :: args :: " + obj);
                     }
+                    if (args.length > 0 && listener != null) {
+                        listener.onEvent(componentName, args[0]);
+                    }
                 }
             }
         });
@@ -297,6 +446,106 @@ public class SocketIO implements NetworkCodes {
         });
     }
 
+    private void startHeartbeat() {
+        if (heartbeatInterval <= 0) {
+            return;
+        }
+        synchronized (heartbeatLock) {
+            beatPending = false;
+            missedBeats = 0;
+            scheduleBeat();
+        }
+    }
+
+    private void stopHeartbeat() {
+        synchronized (heartbeatLock) {
+            if (heartbeatTimeout != null) {
+                heartbeatTimeout.cancel();
+                heartbeatTimeout = null;
+            }
+            beatPending = false;
+            // answers of the old beats are ignored
+            beatSequence++;
+        }
+    }
+
+    private void scheduleBeat() {
+        heartbeatTimeout = TimeoutManager.getManager().schedule(new Runnable() {
+            @Override
+            public void run() {
+                beat();
+            }
+        }, heartbeatInterval);
+    }
+
+    /**
+     * Method to send the next beat. A beat which is not answered until the next one is counted as missed.
+     */
+    private void beat() {
+        final int sequence;
+        final long sentAt = System.nanoTime();
+        Socket current;
+        synchronized (heartbeatLock) {
+            current = socket;
+            if (heartbeatTimeout == null || current == null || socketStatus != SOCKET_CONNECTED) {
+                return;
+            }
+            if (beatPending) {
+                missedBeats++;
+                Logger.error("SocketIO :: " + componentName + " :: Missed heartbeat " + missedBeats + " of " + maxMissedBeats);
+                if (missedBeats >= maxMissedBeats) {
+                    heartbeatTimeout = null;
+                    beatSequence++;
+                    current = null;
+                }
+            }
+            if (current != null) {
+                sequence = ++beatSequence;
+                beatPending = true;
+                scheduleBeat();
+            } else {
+                sequence = -1;
+            }
+        }
+        if (current == null) {
+            onConnectionDead();
+            return;
+        }
+        current.emit(EVENT_HEARTBEAT, sequence, new Ack() {
+            @Override
+            public void call(Object... args) {
+                long rtt = (System.nanoTime() - sentAt) / 1000000L;
+                synchronized (heartbeatLock) {
+                    if (sequence != beatSequence) {
+                        return;
+                    }
+                    beatPending = false;
+                    missedBeats = 0;
+                    smoothedRtt = (smoothedRtt < 0) ? rtt : (RTT_WEIGHT * rtt + (1 - RTT_WEIGHT) * smoothedRtt);
+                }
+            }
+        });
+    }
+
+    /**
+     * Method to close a connection which does not answer the heartbeat anymore.
+     * Listener gets onDisconnected() like for a connection closed by the server.
+     */
+    private void onConnectionDead() {
+        Logger.error("SocketIO :: Connection to " + componentName + " is dead. Closing it.");
+        socketStatus = SOCKET_DISCONNECTED;
+        Socket dead = socket;
+        SocketListener currentListener = listener;
+        String name = componentName;
+        clearSocketCallback();
+        if (dead != null) {
+            dead.disconnect();
+        }
+        if (currentListener != null && name != null) {
+            currentListener.onDisconnected(name);
+        }
+    }
+
     /**
      * Method to send failure callback
      * @param error     error message
@@ -304,7 +553,7 @@ public class SocketIO implements NetworkCodes {
      * @param requestId error occurred for this id
      */
     private void onFailure(final String error,final  int errorCode,final  int requestId) {
-        removeTimeoutThread(requestId);
+        removeTimeout(requestId);
         if (listener == null) {
             Logger.error("SocketIO :: No listner for failure callback in " + componentName);
         } else {
@@ -313,29 +562,30 @@ public class SocketIO implements NetworkCodes {
     }
 
     /**
-     * Method to remove the particular timeout thread of a request
-     * @param requestId - key to remove the timeout thread
+     * Method to cancel the particular timeout of a request
+     * @param requestId - key to remove the timeout
      */
-    private void removeTimeoutThread(int requestId) {
-        if (stackForTimeoutThread.get(requestId) != null) {
-            stackForTimeoutThread.get(requestId).interrupt();
+    private void removeTimeout(int requestId) {
+        synchronized (stackForTimeout) {
+            TimeoutTask task = stackForTimeout.get(requestId);
+            if (task != null) {
+                task.timeout.cancel();
+                stackForTimeout.remove(requestId);
+            }
         }
-        stackForTimeoutThread.remove(requestId);
     }
 
     /**
-     * Method to clear all available timeout threads
+     * Method to cancel all available timeouts
      */
-    private void clearTimeoutThreads() {
-        Logger.method(this, "Clear timeout thread");
-        for (int index = 0; index < stackForTimeoutThread.size(); index++) {
-            int key = stackForTimeoutThread.keyAt(index);
-            Thread thread = stackForTimeoutThread.get(key);
-            if (thread != null && !thread.isInterrupted()) {
-                thread.interrupt();
+    private void clearTimeouts() {
+        Logger.method(this, "Clear timeouts");
+        synchronized (stackForTimeout) {
+            for (int index = 0; index < stackForTimeout.size(); index++) {
+                stackForTimeout.valueAt(index).timeout.cancel();
             }
+            stackForTimeout.clear();
         }
-        stackForTimeoutThread.clear();
     }
 
     private void clearSocketCallback() {
@@ -348,24 +598,25 @@ public class SocketIO implements NetworkCodes {
         }
     }
 
-    private class TimeoutThread implements Runnable {
+    private class TimeoutTask implements Runnable {
         private int requestId;
-        private int timeout;
+        private TimeoutManager.Timeout timeout;
 
-        TimeoutThread(int requestId, int timeout) {
+        TimeoutTask(int requestId) {
             this.requestId = requestId;
-            this.timeout = timeout;
         }
 
         @Override
         public void run() {
-            try {
-                Thread.sleep(timeout);
-                Logger.message("TimeoutThread :: timed out :: request id :: " + requestId);
-                onFailure("Request timed out", EC_REQUEST_TIMEOUT, requestId);
-            } catch (InterruptedException e) {
-                Logger.error("SocketIO :: " + componentName + " == TimeoutThread :: Exception : " + e);
+            synchronized (stackForTimeout) {
+                if (stackForTimeout.get(requestId) != this) {
+                    // response or failure already removed this timeout
+                    return;
+                }
+                stackForTimeout.remove(requestId);
             }
+            Logger.message("TimeoutTask :: timed out :: request id :: " + requestId);
+            onFailure("Request timed out", EC_REQUEST_TIMEOUT, requestId);
         }
     }
 }
@@ -1,19 +1,22 @@
 package com.vimo.network;
 
-import android.app.Activity;
-
 import com.vimo.network.helper.Logger;
 import com.vimo.network.listener.ConnectionListener;
 import com.vimo.network.listener.NetworkCodes;
 import com.vimo.network.listener.SocketIoManagerListener;
 import com.vimo.network.listener.SocketListener;
+import com.vimo.network.manager.DsDomainManager;
+import com.vimo.network.manager.SubscriptionManager;
+import com.vimo.network.manager.TimeoutManager;
 import com.vimo.network.model.ComponentInfo;
 import com.vimo.network.model.RequestInfo;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * File created by vimo on 28/03/18.
@@ -24,9 +27,16 @@ public class SocketIoManager extends SocketListener implements NetworkCodes {
     private ComponentInfo componentInfo;
     private String componentName;
     private SocketIO socketIo = null;
-    private Map<Integer, RequestInfo> requestInfos = new HashMap<>();
+    /** requests of this component by wire id. Whoever removes a request completes it */
+    private final ConcurrentHashMap<Integer, RequestInfo> requestInfos = new ConcurrentHashMap<>();
     private SocketIoManagerListener ioManagerListener;
     private boolean requestAvailable;
+    private ConnectionRace connectionRace = null;
+    private final List<PooledConnection> pool = new ArrayList<>();
+    private static final Random jitter = new Random();
+    private TimeoutManager.Timeout reconnectTimeout = null;
+    private int reconnectAttempt = 0;
+    private volatile long lastActivity = System.currentTimeMillis();
 
     SocketIoManager(ComponentInfo componentInfo, String componentName, SocketIoManagerListener ioManagerListener) {
         this.componentInfo = componentInfo;
@@ -36,24 +46,29 @@ public class SocketIoManager extends SocketListener implements NetworkCodes {
 
     public synchronized void send(final RequestInfo info) {
         Logger.method(this, "send");
-        if (!requestInfos.containsKey(info.getRequestId())) {
+        lastActivity = System.currentTimeMillis();
+        if (info.isWarmup()) {
+            connect();
+            return;
+        }
+        if (requestInfos.putIfAbsent(info.getWireId(), info) == null) {
             Logger.message("SIO :: Received new request to send");
-            requestInfos.put(info.getRequestId(), info);
         } else {
-            Logger.error("SIO :: Received duplicate request for request id " + info.getRequestId());
+            Logger.error("SIO :: Received duplicate request for wire id " + info.getWireId());
             return;
         }
         if (componentInfo == null) {
             Logger.error("SIO :: There is no proper component info found :: request id " + info.getRequestId());
             Logger.error("SIO :: Trying to cleanup this component :: " + info.getComponentName());
-            Map<Integer, RequestInfo> temp = new HashMap<>(requestInfos);
-            failureCallback(temp, EC_NETWORK_ERROR);
+            failureCallback(drainRequests(), EC_NETWORK_ERROR);
             ioManagerListener.didDisconnected(componentName, NetworkManager.getManager().getLocalizedString(EC_NETWORK_ERROR), EC_NETWORK_ERROR);
+        } else if (reconnectTimeout != null) {
+            Logger.message("SIO :: send :: Waiting for reconnection :: " + componentName);
         } else if (socketIo == null) {
             connectSocket();
         } else if (isActive()) {
             info.setRequested(true);
-            socketIo.send(info);
+            dispatch(info);
         } else if (isConnecting()) {
             Logger.message("SIO :: send :: Waiting for socket to be connected :: " + componentName);
         } else {
@@ -72,13 +87,36 @@ public class SocketIoManager extends SocketListener implements NetworkCodes {
                 } else {
                     Logger.error("SIO :: Something happened in network for " + componentName + " socket");
                     info.getListener().onFailure(NetworkManager.getManager().getLocalizedString(EC_NETWORK_ERROR), EC_NETWORK_ERROR, info.getRequestId());
-                    requestInfos.remove(info.getRequestId());
+                    requestInfos.remove(info.getWireId());
                 }
             } else {
                 Logger.error("SIO :: Something happened in network for " + componentName + " socket");
                 info.getListener().onFailure(NetworkManager.getManager().getLocalizedString(EC_NETWORK_ERROR), EC_NETWORK_ERROR, info.getRequestId());
-                requestInfos.remove(info.getRequestId());
+                requestInfos.remove(info.getWireId());
+            }
+        }
+    }
+
+    /**
+     * Method to open the socket connection without sending any request.
+     * Listener gets didConnected() once the connection is ready.
+     */
+    public synchronized void connect() {
+        Logger.method(this, "connect :: " + componentName);
+        if (componentInfo == null) {
+            Logger.error("SIO :: There is no proper component info found to connect " + componentName);
+            ioManagerListener.didDisconnected(componentName, NetworkManager.getManager().getLocalizedString(EC_NETWORK_ERROR), EC_NETWORK_ERROR);
+        } else if (isActive()) {
+            ioManagerListener.didConnected(componentName);
+        } else if (isConnecting()) {
+            Logger.message("SIO :: connect :: Waiting for socket to be connected :: " + componentName);
+        } else if (socketIo == null || socketIo.getSocketStatus() == SocketIO.SOCKET_DISCONNECTED || socketIo.getSocketStatus() == SocketIO.SOCKET_FAILED) {
+            if (socketIo != null) {
+                socketIo.clearConnection();
             }
+            connectSocket();
+        } else {
+            Logger.message("SIO :: connect :: Socket is disconnecting :: " + componentName);
         }
     }
 
@@ -87,44 +125,102 @@ public class SocketIoManager extends SocketListener implements NetworkCodes {
      * @return  false if there is no background task, else true
      */
     public boolean anyBackgroundTask() {
-        Map<Integer, RequestInfo> temp = new HashMap<>(requestInfos);
-        Set<Integer> keys = temp.keySet();
-        for (Integer key : keys) {
-            RequestInfo info = temp.get(key);
-            if (NetworkManager.getManager().getBackgroundTaskId().contains(info.getRequestId())) {
+        for (RequestInfo info : requestInfos.values()) {
+            if (NetworkManager.getManager().isBackgroundTask(info.getRequestId())) {
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Method to get the round trip time of the main connection
+     * @return  smoothed heartbeat round trip time in milli seconds, or -1 if it is not measured
+     */
+    public long getSmoothedRtt() {
+        SocketIO current = socketIo;
+        return (current == null) ? -1 : current.getSmoothedRtt();
+    }
+
+    /**
+     * Method to get the time of the last request or answer
+     * @return  time in milli seconds
+     */
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
     public boolean hasSocketInstance() {
-        return (socketIo != null);
+        return (socketIo != null || connectionRace != null || reconnectTimeout != null);
     }
 
     public boolean isActive() { // in case of failure, socket io will be null. Need to add null check
-        return (socketIo != null && socketIo.getSocketStatus() == SocketIO.SOCKET_CONNECTED);
+        return (connectionRace == null && socketIo != null && socketIo.getSocketStatus() == SocketIO.SOCKET_CONNECTED);
     }
 
     public boolean isConnecting() {  // in case of failure, socket io will be null. Need to add null check
-        return (socketIo != null && socketIo.getSocketStatus() == SocketIO.SOCKET_CONNECTING);
+        return (connectionRace != null || reconnectTimeout != null || (socketIo != null && socketIo.getSocketStatus() == SocketIO.SOCKET_CONNECTING));
     }
 
     public void disconnectSocket() {
         Logger.method(this, "disconnectSocket :: " + componentName);
-        if (socketIo == null) {
+        closePool();
+        if (cancelReconnect()) {
+            Logger.message("SIO :: Reconnection of " + componentName + " is cancelled by app");
+            ioManagerListener.didDisconnected(componentName, null, EC_APP_ERROR);
+        } else if (socketIo == null) {
             Logger.error("SIO :: Socket connection is already died for " + componentName);
         } else {
             socketIo.disconnect();
         }
     }
 
+    /**
+     * Method to forget a request
+     * @param key   wire id of the request
+     */
     public void removeRequest(int key) {
         requestInfos.remove(key);
     }
 
+    /**
+     * Method to cancel a sent request. Its timeout is stopped and it does not count
+     * anymore for the load of the socket it was sent on.
+     * @param key   wire id of the request
+     */
+    public void cancelRequest(int key) {
+        requestInfos.remove(key);
+        SocketIO socket = socketIo;
+        if (socket != null) {
+            socket.cancel(key);
+        }
+        List<PooledConnection> connections;
+        synchronized (pool) {
+            connections = new ArrayList<>(pool);
+        }
+        for (PooledConnection connection : connections) {
+            if (connection.socket != null) {
+                connection.socket.cancel(key);
+            }
+        }
+    }
+
+    /**
+     * Method to get the requests which are not answered yet
+     * @return  copy of the pending requests
+     */
+    public synchronized List<RequestInfo> getPendingRequests() {
+        return new ArrayList<>(requestInfos.values());
+    }
+
     public void clearSocketManager() {
         Logger.method(this, "clearSocketManager :: " + componentName);
+        if (connectionRace != null) {
+            connectionRace.abort();
+            connectionRace = null;
+        }
+        cancelReconnect();
+        closePool();
         componentInfo = null;
         componentName = null;
         requestAvailable = false;
@@ -135,21 +231,82 @@ public class SocketIoManager extends SocketListener implements NetworkCodes {
         socketIo = null;
     }
 
+    /**
+     * Method to close the connection because the network is gone. All the waiting requests fail.
+     * @param error     error message for the callbacks
+     * @param errorCode error code for the callbacks
+     */
+    public void dropConnection(String error, int errorCode) {
+        Logger.method(this, "dropConnection :: " + componentName);
+        Map<Integer, RequestInfo> temp;
+        synchronized (this) {
+            if (componentInfo == null) {
+                return;
+            }
+            cancelReconnect();
+            closePool();
+            if (socketIo != null) {
+                socketIo.abort();
+            }
+            temp = drainRequests();
+        }
+        if (temp.size() > 0) {
+            NetworkManager.getManager().sendFailureCallback(temp, error, errorCode);
+        }
+        ioManagerListener.didDisconnected(componentName, error, errorCode);
+    }
+
+    /**
+     * Method to leave the sockets of the old network after the default network is changed.
+     * The component is reconnected if the reconnection is enabled, else the connection is dropped.
+     */
+    public void onNetworkChanged() {
+        boolean reconnect = false;
+        synchronized (this) {
+            if (componentInfo == null || !isActive()) {
+                return;
+            }
+            if (!NetworkManager.getDsComponentName().equals(componentName) && NetworkManager.getManager().getReconnectAttempts() > 0) {
+                Logger.message("SIO :: " + componentName + " :: Network is changed. Reconnecting...");
+                closePool();
+                socketIo.abort();
+                reconnect = true;
+            }
+        }
+        if (reconnect && scheduleReconnect()) {
+            return;
+        }
+        dropConnection(NetworkManager.getManager().getLocalizedString(EC_NETWORK_ERROR), EC_NETWORK_ERROR);
+    }
+
     /* SOCKET LISTENERS */
 
     @Override
     public void onConnected(String cn) {
         Logger.method(this, "connected to " + componentName);
-        if (requestInfos.size() == 0) {
+        if (reconnectAttempt > 0) {
+            Logger.message("SIO :: " + componentName + " reconnected after " + reconnectAttempt + " attempt(s)");
+            reconnectAttempt = 0;
+        }
+        if (NetworkManager.getDsComponentName().equals(componentName)) {
+            DsDomainManager.getManager().reportSuccess(socketIo.getHost(), socketIo.getConnectLatency());
+        }
+        if (ioManagerListener != null) {
+            ioManagerListener.didConnected(componentName);
+        }
+        failExpiredRequests();
+        if (requestInfos.isEmpty()) {
             Logger.message("SIO :: onConnected :: No request info found to send");
         } else {
-            Map<Integer, RequestInfo> temp = new HashMap<>(requestInfos);
-            Logger.message("SIO :: onConnected :: Going to send all available (" + temp.size() + ") pending request to " + componentName);
-            Set<Integer> keys = temp.keySet();
-            for (Integer key : keys) {
-                RequestInfo info = temp.get(key);
+            Logger.message("SIO :: onConnected :: Going to send all available (" + requestInfos.size() + ") pending request to " + componentName);
+            for (RequestInfo info : requestInfos.values()) {
+                if (info.isRequested()) {
+                    // still in flight on a pooled connection
+                    continue;
+                }
                 Logger.message("SIO :: onConnected :: " + componentName + " :: Sending request for " + info.getRequestId());
-                socketIo.send(info);
+                info.setRequested(true);
+                dispatch(info);
             }
         }
     }
@@ -157,32 +314,12 @@ public class SocketIoManager extends SocketListener implements NetworkCodes {
     @Override
     public void onDisconnected(String cn) {
         Logger.method(this, "Disconnected from " + componentName);
+        if (!socketIo.isDisconnectedByApp() && scheduleReconnect()) {
+            return;
+        }
         if (!socketIo.isDisconnectedByApp()) {
-            final Map<Integer, RequestInfo> temp = new HashMap<>(requestInfos);
-            if (NetworkManager.getDsComponentName().equals(componentName)) {
-                failureCallback(temp, EC_NETWORK_ERROR);
-            } else {
-                Activity activity = ViMoNetApplication.getApplication().getCurrentActivity();
-                if (activity != null) {
-                    Logger.message("SIO :: onSuccess :: activity is alive. Going to send callback");
-                    activity.runOnUiThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            failureCallback(temp, EC_NETWORK_ERROR);
-                        }
-                    });
-                } else {
-                    Set<Integer> keys = new HashSet<>(temp.keySet());
-                    for (Integer key : keys) {
-                        if (!NetworkManager.getManager().getBackgroundTaskId().contains(key)) {
-                            temp.remove(key);
-                        }
-                    }
-                    if (temp.size() > 0) {
-                        failureCallback(temp, EC_NETWORK_ERROR);
-                    }
-                }
-            }
+            // callback dispatcher picks the thread of every callback
+            failureCallback(drainRequests(), EC_NETWORK_ERROR);
             // reset request availability
             requestAvailable = false;
         }
@@ -199,17 +336,23 @@ public class SocketIoManager extends SocketListener implements NetworkCodes {
         }
     }
 
+    @Override
+    public void onEvent(String cn, Object message) {
+        Logger.method(this, "onEvent " + componentName);
+        lastActivity = System.currentTimeMillis();
+        SubscriptionManager.getManager().onEvent(componentName, message);
+    }
+
     @Override
     public void onSuccess(String cn, final Object response, final int requestId) {
         Logger.method(this, "onSuccess " + componentName + " (req :: " + requestId + ")");
-        Map<Integer, RequestInfo> temp = new HashMap<>(requestInfos);
-        requestInfos.remove(requestId);
-        if (temp.containsKey(requestId)) {
-            final RequestInfo info = temp.get(requestId);
+        lastActivity = System.currentTimeMillis();
+        final RequestInfo info = requestInfos.remove(requestId);
+        if (info != null) {
             if (componentName.equals(NetworkManager.getDsComponentName())) {
                 Logger.message("SIO :: onSuccess :: directory service lookup :: callback");
                 final ConnectionListener listener = info.getListener();
-                listener.onSuccess(response, requestId);
+                listener.onSuccess(response, info.getRequestId());
             } else {
                 NetworkManager.getManager().sendSuccessCallback(info, response);
             }
@@ -221,18 +364,26 @@ public class SocketIoManager extends SocketListener implements NetworkCodes {
     @Override
     public void onFailure(String cn, final String error, final int errorCode, final int requestId) {
         Logger.method(this, "onFailure " + componentName + " (req :: " + requestId + ")");
-        Map<Integer, RequestInfo> temp = new HashMap<>(requestInfos);
-        requestInfos.remove(requestId);
-        if (errorCode == EC_CONNECTION_ERROR) {
+        lastActivity = System.currentTimeMillis();
+        if (reconnectAttempt > 0 && (errorCode == EC_CONNECTION_ERROR || errorCode == EC_CONNECTION_TIMEOUT)) {
+            if (scheduleReconnect()) {
+                return;
+            }
+            reconnectionFailed();
+            return;
+        }
+        if (errorCode == EC_CONNECTION_ERROR || errorCode == EC_CONNECTION_TIMEOUT) {
+            // a socket which times out while connecting is as dead as one which fails to connect
             if (componentName.equals(NetworkManager.getDsComponentName())) {
+                DsDomainManager.getManager().reportFailure(socketIo.getHost());
                 ioManagerListener.didDisconnected(componentName, error, errorCode);
             } else {
-                failureCallback(temp, EC_NETWORK_ERROR);
+                failureCallback(drainRequests(), EC_NETWORK_ERROR);
                 ioManagerListener.didDisconnected(componentName, error, errorCode);
             }
         } else {
-            if (temp.get(requestId) != null) {
-                final RequestInfo info = temp.get(requestId);
+            final RequestInfo info = requestInfos.remove(requestId);
+            if (info != null) {
                 NetworkManager.getManager().sendFailureCallback(info, error, errorCode);
             } else {
                 Logger.error("SIO :: onFailure :: " + componentName + " :: Request callback is not found for " + requestId);
@@ -242,12 +393,500 @@ public class SocketIoManager extends SocketListener implements NetworkCodes {
 
     /* PRIVATE METHODS */
 
+    /**
+     * Method to take all the requests out of the table. Every request is removed atomically,
+     * so a request answered at the same time is completed only once.
+     * @return  removed requests by wire id
+     */
+    private Map<Integer, RequestInfo> drainRequests() {
+        Map<Integer, RequestInfo> drained = new HashMap<>();
+        for (Map.Entry<Integer, RequestInfo> entry : requestInfos.entrySet()) {
+            if (requestInfos.remove(entry.getKey(), entry.getValue())) {
+                drained.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Method to plan the next reconnection attempt with a jittered exponential back off.
+     * The requests which can not wait for the reconnection fail after the lock is released,
+     * so a listener calling back into the network manager can not deadlock with a send.
+     * @return  true if an attempt is planned, false if the reconnection is disabled or its budget is used up
+     */
+    private boolean scheduleReconnect() {
+        Map<Integer, RequestInfo> unsafe = new HashMap<>();
+        Map<Integer, RequestInfo> expired = new HashMap<>();
+        boolean planned = planReconnect(unsafe, expired);
+        if (unsafe.size() > 0) {
+            Logger.message("SIO :: " + componentName + " :: " + unsafe.size() + " request(s) can not be replayed after the connection loss");
+            failureCallback(unsafe, EC_NETWORK_ERROR);
+        }
+        if (expired.size() > 0) {
+            Logger.message("SIO :: " + componentName + " :: " + expired.size() + " request(s) timed out while waiting for the connection");
+            NetworkManager.getManager().sendFailureCallback(expired, "Request timed out", EC_REQUEST_TIMEOUT);
+        }
+        return planned;
+    }
+
+    /**
+     * Method to schedule the reconnection timeout and take out the requests which have to fail
+     * @param unsafe    filled with the requests of the lost connection which can not be sent again
+     * @param expired   filled with the waiting requests whose timeout is over
+     * @return  true if an attempt is planned, false if the reconnection is disabled or its budget is used up
+     */
+    private synchronized boolean planReconnect(Map<Integer, RequestInfo> unsafe, Map<Integer, RequestInfo> expired) {
+        NetworkManager manager = NetworkManager.getManager();
+        if (componentInfo == null || NetworkManager.getDsComponentName().equals(componentName) || reconnectAttempt >= manager.getReconnectAttempts()) {
+            return false;
+        }
+        if (reconnectTimeout != null) {
+            // another path already planned this attempt
+            return true;
+        }
+        if (reconnectAttempt == 0) {
+            // requests in flight on the pooled connections keep waiting for their answers
+            takeUnsafeRequests((socketIo != null) ? socketIo.getInFlightIds() : new ArrayList<Integer>(), unsafe);
+        }
+        // the deadline of a waiting request can pass during any back off
+        takeExpiredRequests(expired);
+        reconnectAttempt++;
+        long ceiling = Math.min((long) manager.getReconnectBaseDelay() << Math.min(reconnectAttempt - 1, 16), manager.getReconnectMaxDelay());
+        long delay = (long) (jitter.nextDouble() * ceiling);
+        Logger.message("SIO :: " + componentName + " :: Reconnection attempt " + reconnectAttempt + " in " + delay + " ms");
+        if (socketIo != null) {
+            // drops the timeouts of the lost connection. replayed requests get new ones
+            socketIo.clearConnection();
+        }
+        reconnectTimeout = TimeoutManager.getManager().schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (SocketIoManager.this) {
+                    if (reconnectTimeout == null || componentInfo == null) {
+                        return;
+                    }
+                    reconnectTimeout = null;
+                    socketIo = null;
+                    connectSocket();
+                }
+            }
+        }, delay);
+        return true;
+    }
+
+    private synchronized boolean cancelReconnect() {
+        if (reconnectTimeout == null) {
+            return false;
+        }
+        reconnectTimeout.cancel();
+        reconnectTimeout = null;
+        reconnectAttempt = 0;
+        return true;
+    }
+
+    /**
+     * Method to take out the requests of the lost connection which can not be sent again on a new one.
+     * These are the expired requests and the non idempotent requests which were already sent.
+     * The other requests of the lost connection are marked to be sent again after the reconnection.
+     * @param lostIds   wire ids of the requests in flight on the lost connection
+     * @param unsafe    filled with the removed requests by wire id
+     */
+    private synchronized void takeUnsafeRequests(List<Integer> lostIds, Map<Integer, RequestInfo> unsafe) {
+        for (Integer wireId : lostIds) {
+            RequestInfo info = requestInfos.get(wireId);
+            if (info == null) {
+                continue;
+            }
+            if (info.isExpired() || !info.isIdempotent()) {
+                if (requestInfos.remove(wireId, info)) {
+                    unsafe.put(wireId, info);
+                }
+            } else {
+                info.setRequested(false);
+            }
+        }
+    }
+
+    /**
+     * Method to take out the waiting requests whose timeout is over. Requests in flight have their own timeouts.
+     * @param expired   filled with the removed requests by wire id
+     */
+    private synchronized void takeExpiredRequests(Map<Integer, RequestInfo> expired) {
+        for (Map.Entry<Integer, RequestInfo> entry : requestInfos.entrySet()) {
+            RequestInfo info = entry.getValue();
+            if (!info.isRequested() && info.isExpired() && requestInfos.remove(entry.getKey(), info)) {
+                expired.put(entry.getKey(), info);
+            }
+        }
+    }
+
+    /**
+     * Method to fail the waiting requests whose timeout is over, outside of the manager lock
+     */
+    private void failExpiredRequests() {
+        Map<Integer, RequestInfo> expired = new HashMap<>();
+        takeExpiredRequests(expired);
+        if (expired.size() > 0) {
+            Logger.message("SIO :: " + componentName + " :: " + expired.size() + " request(s) timed out while waiting for the connection");
+            NetworkManager.getManager().sendFailureCallback(expired, "Request timed out", EC_REQUEST_TIMEOUT);
+        }
+    }
+
+    /**
+     * Method to give up the reconnection. All the waiting requests get EC_NETWORK_ERROR.
+     */
+    private void reconnectionFailed() {
+        Logger.error("SIO :: " + componentName + " :: Reconnection failed after " + reconnectAttempt + " attempt(s)");
+        Map<Integer, RequestInfo> temp;
+        synchronized (this) {
+            reconnectAttempt = 0;
+            temp = drainRequests();
+        }
+        if (temp.size() > 0) {
+            failureCallback(temp, EC_NETWORK_ERROR);
+        }
+        // connection error lets the network manager drop the cached component info as well
+        ioManagerListener.didDisconnected(componentName, NetworkManager.getManager().getLocalizedString(EC_NETWORK_ERROR), EC_CONNECTION_ERROR);
+    }
+
+    /**
+     * Method to send a request on the connection with the fewest requests in flight.
+     * Opens one more pooled connection when every usable connection is busy.
+     * @param info  request to send
+     */
+    private void dispatch(RequestInfo info) {
+        SocketIO target = socketIo;
+        int load = socketIo.getInFlightCount();
+        synchronized (pool) {
+            PooledConnection selected = null;
+            boolean opening = false;
+            for (PooledConnection connection : pool) {
+                if (!connection.socket.isConnected()) {
+                    opening = true;
+                    continue;
+                }
+                int connectionLoad = connection.socket.getInFlightCount();
+                if (connectionLoad < load) {
+                    target = connection.socket;
+                    load = connectionLoad;
+                    selected = connection;
+                }
+            }
+            if (selected != null) {
+                selected.lastActive = System.currentTimeMillis();
+            }
+            NetworkManager manager = NetworkManager.getManager();
+            if (!opening && load >= manager.getRequestsPerConnection() && pool.size() + 1 < manager.getMaxConnectionsPerComponent()
+                    && !NetworkManager.getDsComponentName().equals(componentName)) {
+                growPool();
+            }
+        }
+        target.send(info);
+    }
+
+    /**
+     * Method to open one more connection to the host of the main connection
+     */
+    private void growPool() {
+        Logger.message("SIO :: " + componentName + " :: All connections are busy. Opening pooled connection " + (pool.size() + 2));
+        PooledConnection connection = new PooledConnection();
+        connection.socket = createSocket(socketIo.getHost(), connection);
+        // a pooled connection is only useful as an own physical connection
+        connection.socket.setMultiplexed(false);
+        pool.add(connection);
+        connection.socket.connect();
+    }
+
+    private void closePool() {
+        List<PooledConnection> connections;
+        synchronized (pool) {
+            connections = new ArrayList<>(pool);
+            pool.clear();
+        }
+        for (PooledConnection connection : connections) {
+            connection.close();
+        }
+    }
+
     private void connectSocket() {
         Logger.method(this, "connectSocket");
-        socketIo = new SocketIO(componentInfo.getDomain(), componentInfo.getNport(), componentName, true, this);
+        List<String> hosts = candidateHosts();
+        if (NetworkManager.getManager().isConnectionRacingEnabled() && hosts.size() > 1) {
+            connectionRace = new ConnectionRace(hosts);
+            connectionRace.start();
+            return;
+        }
+        socketIo = createSocket(componentInfo.getDomain(), this);
         socketIo.connect();
     }
 
+    private SocketIO createSocket(String host, SocketListener listener) {
+        SocketIO socket = new SocketIO(host, componentInfo.getNport(), componentName, true, listener);
+        socket.setBinaryEnvelope(componentInfo.isBinarySupported() && NetworkManager.getManager().isBinaryEnvelopeEnabled());
+        // the ds lookups keep their one request at a time exchange
+        socket.setMultiplexed(NetworkManager.getManager().isMultiplexEnabled() && !NetworkManager.getDsComponentName().equals(componentName));
+        socket.setHeartbeat(NetworkManager.getManager().getHeartbeatInterval(), NetworkManager.getManager().getMaxMissedBeats());
+        if (componentInfo.isCompressionSupported()) {
+            socket.setCompressionThreshold(NetworkManager.getManager().getCompressionThreshold());
+        }
+        return socket;
+    }
+
+    /**
+     * Method to collect the endpoints which can serve this component, in order of preference
+     * @return  distinct hosts to connect
+     */
+    private List<String> candidateHosts() {
+        List<String> hosts = new ArrayList<>();
+        if (NetworkManager.getDsComponentName().equals(componentName)) {
+            hosts.add(componentInfo.getDomain());
+            for (String domain : DsDomainManager.getManager().rankedDomains()) {
+                if (!hosts.contains(domain)) {
+                    hosts.add(domain);
+                }
+            }
+        } else {
+            String[] addresses = {componentInfo.getDomain(), componentInfo.getPublicIp(), componentInfo.getComponentIp()};
+            for (String address : addresses) {
+                if (address != null && address.trim().length() > 0 && !hosts.contains(address)) {
+                    hosts.add(address);
+                }
+            }
+        }
+        return hosts;
+    }
+
+    /**
+     * Additional connection of the pool. Answers are handed to the manager like the answers of the
+     * main connection. A lost connection fails its own requests only, the main connection stays.
+     */
+    private class PooledConnection extends SocketListener {
+        private SocketIO socket;
+        private long lastActive = System.currentTimeMillis();
+        private TimeoutManager.Timeout idleCheck = null;
+
+        private void scheduleIdleCheck(long delay) {
+            idleCheck = TimeoutManager.getManager().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    checkIdle();
+                }
+            }, delay);
+        }
+
+        private void checkIdle() {
+            long idleTime = System.currentTimeMillis() - lastActive;
+            int idleTimeout = NetworkManager.getManager().getPoolIdleTimeout();
+            if (socket.getInFlightCount() > 0 || idleTime < idleTimeout) {
+                scheduleIdleCheck(Math.max(idleTimeout - idleTime, 1000));
+                return;
+            }
+            synchronized (pool) {
+                if (!pool.remove(this)) {
+                    return;
+                }
+            }
+            Logger.message("SIO :: " + componentName + " :: Closing idle pooled connection");
+            close();
+        }
+
+        private void close() {
+            if (idleCheck != null) {
+                idleCheck.cancel();
+            }
+            socket.abort();
+        }
+
+        /**
+         * Method to drop the connection and fail the requests which were sent on it
+         */
+        private void lost(String error, int errorCode) {
+            synchronized (pool) {
+                if (!pool.remove(this)) {
+                    return;
+                }
+            }
+            Logger.error("SIO :: " + componentName + " :: Pooled connection lost :: " + error);
+            List<Integer> inFlight = socket.getInFlightIds();
+            close();
+            for (Integer wireId : inFlight) {
+                RequestInfo info = requestInfos.remove(wireId);
+                if (info != null) {
+                    NetworkManager.getManager().sendFailureCallback(info, NetworkManager.getManager().getLocalizedString(EC_NETWORK_ERROR), EC_NETWORK_ERROR);
+                }
+            }
+        }
+
+        @Override
+        public void onConnected(String cn) {
+            Logger.message("SIO :: " + componentName + " :: Pooled connection is ready");
+            lastActive = System.currentTimeMillis();
+            scheduleIdleCheck(NetworkManager.getManager().getPoolIdleTimeout());
+        }
+
+        @Override
+        public void onDisconnected(String cn) {
+            lost(NetworkManager.getManager().getLocalizedString(EC_NETWORK_ERROR), EC_NETWORK_ERROR);
+        }
+
+        @Override
+        public void onSuccess(String cn, Object response, int requestId) {
+            lastActive = System.currentTimeMillis();
+            SocketIoManager.this.onSuccess(cn, response, requestId);
+        }
+
+        @Override
+        public void onEvent(String cn, Object message) {
+            lastActive = System.currentTimeMillis();
+            SocketIoManager.this.onEvent(cn, message);
+        }
+
+        @Override
+        public void onFailure(String cn, String error, int errorCode, int requestId) {
+            if (errorCode == EC_CONNECTION_ERROR || errorCode == EC_CONNECTION_TIMEOUT) {
+                lost(error, errorCode);
+            } else {
+                SocketIoManager.this.onFailure(cn, error, errorCode, requestId);
+            }
+        }
+    }
+
+    /**
+     * Staggered connect to several endpoints of the component ("happy eyeballs").
+     * Next endpoint is started when the previous one fails or does not connect within the race delay.
+     * First connected socket is kept, all the others are closed.
+     */
+    private class ConnectionRace {
+        private final List<String> hosts;
+        private final List<SocketIO> attempts = new ArrayList<>();
+        private TimeoutManager.Timeout nextAttemptTimeout = null;
+        private int failedAttempts = 0;
+
+        ConnectionRace(List<String> hosts) {
+            this.hosts = hosts;
+        }
+
+        void start() {
+            startNextAttempt();
+        }
+
+        private void startNextAttempt() {
+            synchronized (SocketIoManager.this) {
+                if (connectionRace != this || attempts.size() >= hosts.size()) {
+                    return;
+                }
+                final String host = hosts.get(attempts.size());
+                Logger.message("SIO :: " + componentName + " :: Racing connection attempt " + (attempts.size() + 1) + " to " + host);
+                AttemptListener listener = new AttemptListener(host);
+                SocketIO attempt = createSocket(host, listener);
+                listener.attempt = attempt;
+                attempts.add(attempt);
+                if (socketIo == null) {
+                    socketIo = attempt;
+                }
+                if (attempts.size() < hosts.size()) {
+                    nextAttemptTimeout = TimeoutManager.getManager().schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            startNextAttempt();
+                        }
+                    }, NetworkManager.getManager().getConnectionRaceDelay());
+                }
+                attempt.connect();
+            }
+        }
+
+        void abort() {
+            if (nextAttemptTimeout != null) {
+                nextAttemptTimeout.cancel();
+            }
+            for (SocketIO attempt : attempts) {
+                attempt.abort();
+            }
+            attempts.clear();
+        }
+
+        private class AttemptListener extends SocketListener {
+            private final String host;
+            private SocketIO attempt;
+
+            AttemptListener(String host) {
+                this.host = host;
+            }
+
+            @Override
+            public void onConnected(String cn) {
+                SocketIO winner = null;
+                synchronized (SocketIoManager.this) {
+                    if (connectionRace != ConnectionRace.this) {
+                        return;
+                    }
+                    for (SocketIO attempt : attempts) {
+                        if (attempt.getSocketStatus() == SocketIO.SOCKET_CONNECTED && winner == null) {
+                            winner = attempt;
+                        } else {
+                            attempt.abort();
+                        }
+                    }
+                    if (nextAttemptTimeout != null) {
+                        nextAttemptTimeout.cancel();
+                    }
+                    connectionRace = null;
+                    if (winner == null) {
+                        return;
+                    }
+                    Logger.message("SIO :: " + componentName + " :: " + winner.getHost() + " won the connection race");
+                    winner.setListener(SocketIoManager.this);
+                    socketIo = winner;
+                }
+                SocketIoManager.this.onConnected(cn);
+            }
+
+            @Override
+            public void onDisconnected(String cn) {
+                // a connected attempt is handed over before it can disconnect
+            }
+
+            @Override
+            public void onSuccess(String cn, Object response, int requestId) {
+                // attempts never send requests
+            }
+
+            @Override
+            public void onFailure(String cn, String error, int errorCode, int requestId) {
+                SocketIO lastFailure = null;
+                synchronized (SocketIoManager.this) {
+                    if (connectionRace != ConnectionRace.this) {
+                        return;
+                    }
+                    failedAttempts++;
+                    if (failedAttempts < hosts.size()) {
+                        if (NetworkManager.getDsComponentName().equals(componentName)) {
+                            DsDomainManager.getManager().reportFailure(host);
+                        }
+                        if (nextAttemptTimeout != null) {
+                            nextAttemptTimeout.cancel();
+                        }
+                        // do not wait for the race delay after a failure
+                        startNextAttempt();
+                        return;
+                    }
+                    Logger.error("SIO :: " + componentName + " :: All " + hosts.size() + " connection attempts failed");
+                    connectionRace = null;
+                    lastFailure = attempt;
+                    for (SocketIO other : attempts) {
+                        if (other != lastFailure) {
+                            other.abort();
+                        }
+                    }
+                    lastFailure.setListener(SocketIoManager.this);
+                    socketIo = lastFailure;
+                }
+                SocketIoManager.this.onFailure(cn, error, errorCode, requestId);
+            }
+        }
+    }
+
     private void failureCallback(final Map<Integer, RequestInfo> temp, int code) {
         NetworkManager.getManager().sendFailureCallback(temp, NetworkManager.getManager().getLocalizedString(code), code);
     }
@@ -3,6 +3,7 @@ package com.vimo.network;
 import android.app.Application;
 
 import com.vimo.network.helper.Logger;
+import com.vimo.network.helper.PayloadCompressor;
 import com.vimo.network.manager.DataManager;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -44,6 +45,12 @@ public class ViMoNetApplication extends Application {
         super.onTerminate();
     }
 
+    @Override
+    public void onLowMemory() {
+        PayloadCompressor.releaseAll();
+        super.onLowMemory();
+    }
+
     public AppCompatActivity getCurrentActivity() {
         return currentActivity;
     }
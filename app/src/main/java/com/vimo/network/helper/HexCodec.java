@@ -0,0 +1,157 @@
+package com.vimo.network.helper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Table driven hex encoder / decoder. All the methods write into caller supplied
+ * buffers, so no per byte objects are created.
+ */
+public class HexCodec {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] HEX_VALUES = new byte[128];
+    private static final int STREAM_BUFFER_SIZE = 4096;
+
+    static {
+        for (int index = 0; index < HEX_VALUES.length; index++) {
+            HEX_VALUES[index] = -1;
+        }
+        for (int index = 0; index < 10; index++) {
+            HEX_VALUES['0' + index] = (byte) index;
+        }
+        for (int index = 0; index < 6; index++) {
+            HEX_VALUES['a' + index] = (byte) (10 + index);
+            HEX_VALUES['A' + index] = (byte) (10 + index);
+        }
+    }
+
+    private HexCodec() {
+    }
+
+    /**
+     * Method to encode bytes as lower case hex
+     * @param src    bytes to encode
+     * @param off    start position in src
+     * @param len    number of bytes to encode
+     * @param dst    buffer to write the hex characters. It needs 2 * len free characters
+     * @param dstOff start position in dst
+     * @return       number of characters written
+     */
+    public static int encode(byte[] src, int off, int len, char[] dst, int dstOff) {
+        int out = dstOff;
+        for (int index = off; index < off + len; index++) {
+            int value = src[index] & 0xFF;
+            dst[out++] = HEX_DIGITS[value >>> 4];
+            dst[out++] = HEX_DIGITS[value & 0x0F];
+        }
+        return out - dstOff;
+    }
+
+    public static String encode(byte[] src, int off, int len) {
+        char[] dst = new char[len * 2];
+        encode(src, off, len, dst, 0);
+        return new String(dst);
+    }
+
+    public static String encode(byte[] src) {
+        return encode(src, 0, src.length);
+    }
+
+    /**
+     * Method to decode hex characters into bytes
+     * @param src    hex characters. Both upper and lower case digits are accepted
+     * @param off    start position in src
+     * @param len    number of characters to decode. Must be even
+     * @param dst    buffer to write the bytes. It needs len / 2 free bytes
+     * @param dstOff start position in dst
+     * @return       number of bytes written
+     */
+    public static int decode(CharSequence src, int off, int len, byte[] dst, int dstOff) {
+        if ((len & 1) != 0) {
+            throw new IllegalArgumentException("HexCodec :: Odd number of hex characters :: " + len);
+        }
+        int out = dstOff;
+        for (int index = off; index < off + len; index += 2) {
+            dst[out++] = (byte) ((digit(src.charAt(index)) << 4) | digit(src.charAt(index + 1)));
+        }
+        return out - dstOff;
+    }
+
+    public static int decode(char[] src, int off, int len, byte[] dst, int dstOff) {
+        if ((len & 1) != 0) {
+            throw new IllegalArgumentException("HexCodec :: Odd number of hex characters :: " + len);
+        }
+        int out = dstOff;
+        for (int index = off; index < off + len; index += 2) {
+            dst[out++] = (byte) ((digit(src[index]) << 4) | digit(src[index + 1]));
+        }
+        return out - dstOff;
+    }
+
+    public static byte[] decode(CharSequence src) {
+        byte[] dst = new byte[src.length() / 2];
+        decode(src, 0, src.length(), dst, 0);
+        return dst;
+    }
+
+    /**
+     * Method to hex encode a stream with fixed size buffers
+     * @param in    source of the raw bytes
+     * @param out   destination for the hex characters
+     * @return      number of bytes encoded
+     */
+    public static long encode(InputStream in, Writer out) throws IOException {
+        byte[] bytes = new byte[STREAM_BUFFER_SIZE];
+        char[] chars = new char[STREAM_BUFFER_SIZE * 2];
+        long total = 0;
+        int read;
+        while ((read = in.read(bytes)) != -1) {
+            out.write(chars, 0, encode(bytes, 0, read, chars, 0));
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Method to decode a hex stream with fixed size buffers
+     * @param in    source of the hex characters
+     * @param out   destination for the decoded bytes
+     * @return      number of bytes decoded
+     */
+    public static long decode(Reader in, OutputStream out) throws IOException {
+        char[] chars = new char[STREAM_BUFFER_SIZE * 2];
+        byte[] bytes = new byte[STREAM_BUFFER_SIZE];
+        long total = 0;
+        int pending = 0;
+        int read;
+        while ((read = in.read(chars, pending, chars.length - pending)) != -1) {
+            int available = pending + read;
+            int even = available & ~1;
+            int written = decode(chars, 0, even, bytes, 0);
+            out.write(bytes, 0, written);
+            total += written;
+            // keep the odd character for the next round
+            pending = available - even;
+            if (pending == 1) {
+                chars[0] = chars[even];
+            }
+        }
+        if (pending != 0) {
+            throw new IllegalArgumentException("HexCodec :: Odd number of hex characters in stream");
+        }
+        return total;
+    }
+
+    private static int digit(char c) {
+        int value = (c < HEX_VALUES.length) ? HEX_VALUES[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("HexCodec :: Invalid hex character :: " + c);
+        }
+        return value;
+    }
+}
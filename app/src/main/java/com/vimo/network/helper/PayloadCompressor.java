@@ -0,0 +1,170 @@
+package com.vimo.network.helper;
+
+import java.util.ArrayDeque;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Deflate / inflate helper for the request and response payloads.
+ * Deflater and Inflater hold native memory, so a few compressors are pooled and reset between the
+ * calls. A compressor which does not fit in the pool is ended right away instead of waiting for the GC.
+ */
+public class PayloadCompressor {
+    private static final int MIN_BUFFER_SIZE = 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_POOLED_COMPRESSORS = 4;
+    public static final int DEFAULT_MAX_INFLATED_SIZE = 8 * 1024 * 1024;
+    private static final ArrayDeque<PayloadCompressor> pool = new ArrayDeque<>();
+    private static volatile int maxInflatedSize = DEFAULT_MAX_INFLATED_SIZE;
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final Inflater inflater = new Inflater();
+    private byte[] buffer = new byte[MIN_BUFFER_SIZE];
+
+    private PayloadCompressor() {
+    }
+
+    /**
+     * Method to set the largest payload accepted by inflate(). A bigger payload fails
+     * like any other broken response, instead of filling the memory.
+     * @param maxInflatedSize size in bytes
+     */
+    public static void setMaxInflatedSize(int maxInflatedSize) {
+        PayloadCompressor.maxInflatedSize = Math.max(MIN_BUFFER_SIZE, maxInflatedSize);
+    }
+
+    public static int getMaxInflatedSize() {
+        return maxInflatedSize;
+    }
+
+    /**
+     * Method to compress the payload
+     * @param input plain bytes
+     * @param off   start position in input
+     * @param len   number of bytes to compress
+     * @return      compressed bytes, or null if compression does not make the payload smaller
+     */
+    public static byte[] deflate(byte[] input, int off, int len) {
+        PayloadCompressor compressor = acquire();
+        try {
+            return compressor.deflateBytes(input, off, len);
+        } finally {
+            release(compressor);
+        }
+    }
+
+    /**
+     * Method to decompress the payload
+     * @param input compressed bytes
+     * @return      plain bytes
+     * @throws DataFormatException  if the payload is broken or bigger than the max inflated size
+     */
+    public static byte[] inflate(byte[] input) throws DataFormatException {
+        PayloadCompressor compressor = acquire();
+        try {
+            return compressor.inflateBytes(input, maxInflatedSize);
+        } finally {
+            release(compressor);
+        }
+    }
+
+    /**
+     * Method to free the native memory of the pooled compressors
+     */
+    public static void releaseAll() {
+        synchronized (pool) {
+            for (PayloadCompressor compressor : pool) {
+                compressor.end();
+            }
+            pool.clear();
+        }
+    }
+
+    private static PayloadCompressor acquire() {
+        synchronized (pool) {
+            PayloadCompressor compressor = pool.pollFirst();
+            if (compressor != null) {
+                return compressor;
+            }
+        }
+        return new PayloadCompressor();
+    }
+
+    private static void release(PayloadCompressor compressor) {
+        synchronized (pool) {
+            if (pool.size() < MAX_POOLED_COMPRESSORS) {
+                pool.addFirst(compressor);
+                return;
+            }
+        }
+        compressor.end();
+    }
+
+    private byte[] deflateBytes(byte[] input, int off, int len) {
+        deflater.reset();
+        deflater.setInput(input, off, len);
+        deflater.finish();
+        byte[] output = buffer;
+        int size = 0;
+        while (!deflater.finished()) {
+            if (size == output.length) {
+                if (size >= len) {
+                    // compressed data is not smaller than the input
+                    return null;
+                }
+                output = grow(output, size, Integer.MAX_VALUE);
+            }
+            size += deflater.deflate(output, size, output.length - size);
+        }
+        if (size >= len) {
+            return null;
+        }
+        return copyResult(output, size);
+    }
+
+    private byte[] inflateBytes(byte[] input, int maxSize) throws DataFormatException {
+        inflater.reset();
+        inflater.setInput(input);
+        byte[] output = buffer;
+        int size = 0;
+        while (!inflater.finished()) {
+            if (size == output.length) {
+                if (size >= maxSize) {
+                    throw new DataFormatException("PayloadCompressor :: Inflated payload is bigger than " + maxSize + " bytes");
+                }
+                output = grow(output, size, maxSize);
+            }
+            int count = inflater.inflate(output, size, output.length - size);
+            if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                throw new DataFormatException("PayloadCompressor :: Truncated compressed payload");
+            }
+            size += count;
+        }
+        return copyResult(output, size);
+    }
+
+    private byte[] copyResult(byte[] output, int size) {
+        byte[] result = new byte[size];
+        System.arraycopy(output, 0, result, 0, size);
+        // keep the grown buffer for the next call, unless it is too big to keep alive in the pool
+        if (output.length <= MAX_RETAINED_BUFFER_SIZE) {
+            buffer = output;
+        }
+        return result;
+    }
+
+    private void end() {
+        deflater.end();
+        inflater.end();
+    }
+
+    private static byte[] grow(byte[] buffer, int used, int maxSize) {
+        int size = (int) Math.min((long) buffer.length * 2, Math.max(maxSize, buffer.length + 1));
+        byte[] bigger = new byte[size];
+        System.arraycopy(buffer, 0, bigger, 0, used);
+        return bigger;
+    }
+}
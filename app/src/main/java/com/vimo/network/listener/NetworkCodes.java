@@ -16,6 +16,7 @@ public interface NetworkCodes {
     int EC_RESPONSE_ERROR       = -5008;
     int EC_REQUEST_TIMEOUT      = -5009;
     int EC_CLEANUP_ERROR        = -5010;
+    int EC_REQUEST_CANCELLED    = -5011;
     // general error code for app
     int EC_APP_ERROR    = -11111111;
     // success response code from server
@@ -28,4 +29,6 @@ public interface NetworkCodes {
 
     String IS_DEV_COMPONENT = "isDevComponent";
     String SIP_COMPONENT = "sip";
+    // request param key to mark a request as safe to send again after a reconnection
+    String IDEMPOTENT_REQUEST = "isIdempotent";
 }
@@ -0,0 +1,13 @@
+package com.vimo.network.listener;
+
+import java.util.List;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ */
+
+public interface PrewarmListener {
+    void onComponentReady(String componentName);
+    void onComponentFailed(String componentName, String error, int errorCode);
+    void onPrewarmFinished(List<String> readyComponents, List<String> failedComponents);
+}
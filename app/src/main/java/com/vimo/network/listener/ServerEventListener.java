@@ -0,0 +1,15 @@
+package com.vimo.network.listener;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ */
+
+public interface ServerEventListener {
+    void onEvent(String componentName, String eventName, String payload);
+
+    /**
+     * Method called when the component of the subscription could not be connected.
+     * The subscription stays active and the connection is tried again.
+     */
+    void onSubscriptionFailed(String componentName, String eventName, String error, int errorCode);
+}
@@ -1,5 +1,6 @@
 package com.vimo.network.listener;
 
 public interface SocketIoManagerListener {
+    void didConnected(String componentName);
     void didDisconnected(String componentName, String error, int errorCode);
 }
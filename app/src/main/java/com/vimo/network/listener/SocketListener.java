@@ -9,4 +9,8 @@ public abstract class SocketListener {
     public abstract void onDisconnected(String componentName);
     public abstract void onSuccess(String componentName, Object response, int requestId);
     public abstract void onFailure(String componentName, String error, int errorCode, int requestId);
+
+    // message pushed by the component without a request
+    public void onEvent(String componentName, Object message) {
+    }
 }
@@ -0,0 +1,200 @@
+package com.vimo.network.manager;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.vimo.network.ViMoNetApplication;
+import com.vimo.network.helper.Logger;
+import com.vimo.network.model.RequestInfo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Delivers the listener callbacks of the requests. A request can name its own executor, else the
+ * callback goes to the main thread while the app is in foreground. Main thread callbacks are
+ * collected and run together by one handler message per frame instead of one message each.
+ */
+public class CallbackDispatcher {
+    private static final CallbackDispatcher callbackDispatcher = new CallbackDispatcher();
+    /** time of one frame in milli seconds */
+    private static final long FRAME_INTERVAL = 16;
+    private static final int BACKGROUND_THREADS = 2;
+
+    private final MainThreadExecutor mainThreadExecutor = new MainThreadExecutor();
+    private final Executor directExecutor = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            runnable.run();
+        }
+    };
+    private ExecutorService backgroundExecutor = null;
+    private volatile RequestIdSet exceptionalIds = new RequestIdSet(null);
+    private volatile RequestIdSet backgroundIds = new RequestIdSet(null);
+
+    public static CallbackDispatcher getManager() {
+        return callbackDispatcher;
+    }
+
+    private CallbackDispatcher() {
+    }
+
+    /**
+     * Method to set the requests whose callbacks are run right away on the thread of the answer
+     * @param requestIds    request ids
+     */
+    public void setExceptionalIds(Collection<Integer> requestIds) {
+        exceptionalIds = new RequestIdSet(requestIds);
+    }
+
+    /**
+     * Method to set the requests whose callbacks are delivered while the app is in background
+     * @param requestIds    request ids
+     */
+    public void setBackgroundIds(Collection<Integer> requestIds) {
+        backgroundIds = new RequestIdSet(requestIds);
+    }
+
+    public boolean isExceptional(int requestId) {
+        return exceptionalIds.contains(requestId);
+    }
+
+    public boolean isBackground(int requestId) {
+        return backgroundIds.contains(requestId);
+    }
+
+    /**
+     * Method to get the executor which runs the callbacks on the main thread, batched per frame
+     * @return  main thread executor
+     */
+    public Executor getMainThreadExecutor() {
+        return mainThreadExecutor;
+    }
+
+    /**
+     * Method to get the executor which runs the callbacks on the thread of the answer, in foreground and background
+     * @return  direct executor
+     */
+    public Executor getDirectExecutor() {
+        return directExecutor;
+    }
+
+    /**
+     * Method to get the shared pool for the callbacks which must not block the main thread
+     * @return  background executor
+     */
+    public synchronized Executor getBackgroundExecutor() {
+        if (backgroundExecutor == null) {
+            backgroundExecutor = Executors.newFixedThreadPool(BACKGROUND_THREADS, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger(1);
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "vimo-callback-" + count.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return backgroundExecutor;
+    }
+
+    /**
+     * Method to deliver a callback of a request
+     * @param info      request of the callback
+     * @param callback  runnable which calls the listener
+     */
+    public void deliver(RequestInfo info, Runnable callback) {
+        Executor executor = info.getCallbackExecutor();
+        if (executor != null) {
+            execute(executor, callback);
+        } else if (isExceptional(info.getRequestId())) {
+            Logger.message("CallbackDispatcher :: Sending to exceptional callback :: " + info.getRequestId());
+            callback.run();
+        } else if (ViMoNetApplication.getApplication().getCurrentActivity() != null) {
+            mainThreadExecutor.execute(callback);
+        } else if (isBackground(info.getRequestId())) {
+            Logger.message("CallbackDispatcher :: Sending background callback :: " + info.getRequestId());
+            callback.run();
+        } else {
+            Logger.error("CallbackDispatcher :: App is in background. Dropping callback of " + info.getRequestId());
+        }
+    }
+
+    /**
+     * Method to run a callback on the main thread while the app is in foreground, else right away
+     * @param callback  runnable which calls the listener
+     */
+    public void deliver(Runnable callback) {
+        if (ViMoNetApplication.getApplication().getCurrentActivity() != null) {
+            mainThreadExecutor.execute(callback);
+        } else {
+            callback.run();
+        }
+    }
+
+    private void execute(Executor executor, Runnable callback) {
+        try {
+            executor.execute(callback);
+        } catch (RejectedExecutionException e) {
+            Logger.error("CallbackDispatcher :: Executor rejected the callback. Running it on the current thread :: " + e.getMessage());
+            callback.run();
+        }
+    }
+
+    /**
+     * Collects the main thread callbacks and runs them with a single handler message,
+     * at most once per frame
+     */
+    private static class MainThreadExecutor implements Executor {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+        private List<Runnable> pending = new ArrayList<>();
+        private boolean scheduled = false;
+        private long lastFlush = 0;
+        private final Runnable flush = new Runnable() {
+            @Override
+            public void run() {
+                List<Runnable> callbacks;
+                synchronized (MainThreadExecutor.this) {
+                    callbacks = pending;
+                    pending = new ArrayList<>();
+                    scheduled = false;
+                    lastFlush = SystemClock.uptimeMillis();
+                }
+                for (Runnable callback : callbacks) {
+                    try {
+                        callback.run();
+                    } catch (RuntimeException e) {
+                        // one broken listener must not cost the callbacks of the others
+                        e.printStackTrace();
+                        Logger.error("CallbackDispatcher :: Exception in callback :: " + e.getMessage());
+                    }
+                }
+            }
+        };
+
+        @Override
+        public void execute(Runnable callback) {
+            long delay;
+            synchronized (this) {
+                pending.add(callback);
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+                delay = Math.max(0, lastFlush + FRAME_INTERVAL - SystemClock.uptimeMillis());
+            }
+            handler.postDelayed(flush, delay);
+        }
+    }
+}
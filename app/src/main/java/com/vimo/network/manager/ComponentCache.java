@@ -0,0 +1,173 @@
+package com.vimo.network.manager;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.vimo.network.helper.Logger;
+import com.vimo.network.model.ComponentInfo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Cache for the directory service lookups. Entries are kept in memory and, when enabled,
+ * in the shared preferences of the app so they survive a process restart.
+ */
+public class ComponentCache {
+    private static final ComponentCache componentCache = new ComponentCache();
+    private static final String preferenceName = "vimo_component_cache";
+    private static final String devSuffix = "#dev";
+    /** default time to live of a lookup in milli seconds */
+    public static final long DEFAULT_TTL = 10 * 60 * 1000;
+
+    private final Map<String, CacheEntry> entries = new HashMap<>();
+    private SharedPreferences preferences = null;
+    private long ttl = DEFAULT_TTL;
+    private boolean enabled = true;
+
+    public static ComponentCache getManager() {
+        return componentCache;
+    }
+
+    private ComponentCache() {
+    }
+
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Method to set the time to live of a lookup
+     * @param ttl time in milli seconds, counted from the token time stamp if the component info has one
+     */
+    public synchronized void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
+    /**
+     * Method to persist the lookups in the app storage
+     * @param context   context to open the shared preferences, or null to keep the cache only in memory
+     */
+    public synchronized void setPersistent(Context context) {
+        if (context == null) {
+            preferences = null;
+            return;
+        }
+        preferences = context.getSharedPreferences(preferenceName, Context.MODE_PRIVATE);
+        loadPersistedEntries();
+    }
+
+    /**
+     * Method to get the valid cached info of a component
+     * @param componentName name of the component
+     * @param isDev         true for the dev version of the component
+     * @return              cached component info, or null if there is no valid entry
+     */
+    public synchronized ComponentInfo get(String componentName, boolean isDev) {
+        if (!enabled) {
+            return null;
+        }
+        String key = cacheKey(componentName, isDev);
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            Logger.message("ComponentCache :: Cached lookup expired for " + key);
+            remove(key);
+            return null;
+        }
+        return entry.info;
+    }
+
+    public synchronized void put(String componentName, boolean isDev, ComponentInfo info) {
+        if (!enabled || info == null) {
+            return;
+        }
+        String key = cacheKey(componentName, isDev);
+        CacheEntry entry = new CacheEntry(info, expiryTime(info));
+        entries.put(key, entry);
+        if (preferences != null) {
+            preferences.edit().putString(key, ResponseDecoder.getGson().toJson(entry)).apply();
+        }
+    }
+
+    /**
+     * Method to remove all the cached lookups of a component
+     * @param componentName name of the component
+     */
+    public synchronized void invalidate(String componentName) {
+        if (entries.containsKey(cacheKey(componentName, false)) || entries.containsKey(cacheKey(componentName, true))) {
+            Logger.message("ComponentCache :: Invalidating cached lookup of " + componentName);
+        }
+        remove(cacheKey(componentName, false));
+        remove(cacheKey(componentName, true));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        if (preferences != null) {
+            preferences.edit().clear().apply();
+        }
+    }
+
+    private void remove(String key) {
+        if (entries.remove(key) != null && preferences != null) {
+            preferences.edit().remove(key).apply();
+        }
+    }
+
+    private long expiryTime(ComponentInfo info) {
+        long issuedAt = System.currentTimeMillis();
+        String tokenTimeStamp = info.getTokenTimeStamp();
+        if (tokenTimeStamp != null) {
+            try {
+                long value = (long) Double.parseDouble(tokenTimeStamp.trim());
+                // server may send the time stamp in seconds or in milli seconds
+                long tokenTime = (value < 100000000000L) ? value * 1000 : value;
+                if (tokenTime < issuedAt) {
+                    issuedAt = tokenTime;
+                }
+            } catch (NumberFormatException e) {
+                Logger.error("ComponentCache :: Unknown token time stamp format :: " + tokenTimeStamp);
+            }
+        }
+        return issuedAt + ttl;
+    }
+
+    private void loadPersistedEntries() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, ?> stored : preferences.getAll().entrySet()) {
+            try {
+                CacheEntry entry = ResponseDecoder.getGson().fromJson((String) stored.getValue(), CacheEntry.class);
+                if (entry != null && entry.info != null && entry.expiresAt > now) {
+                    entries.put(stored.getKey(), entry);
+                } else {
+                    preferences.edit().remove(stored.getKey()).apply();
+                }
+            } catch (Exception e) {
+                Logger.error("ComponentCache :: Unable to read cached lookup :: " + stored.getKey());
+                preferences.edit().remove(stored.getKey()).apply();
+            }
+        }
+    }
+
+    private static String cacheKey(String componentName, boolean isDev) {
+        return isDev ? componentName + devSuffix : componentName;
+    }
+
+    private static class CacheEntry {
+        private ComponentInfo info;
+        private long expiresAt;
+
+        CacheEntry(ComponentInfo info, long expiresAt) {
+            this.info = info;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
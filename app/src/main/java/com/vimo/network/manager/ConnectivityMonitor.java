@@ -0,0 +1,264 @@
+package com.vimo.network.manager;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.net.NetworkRequest;
+import android.os.Build;
+import android.provider.Settings;
+
+import com.vimo.network.helper.Logger;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Keeps the connectivity state of the device up to date from system events, so the requests can be
+ * admitted without asking the ConnectivityManager and the settings provider every time.
+ * Uses a network callback on API 21+ and the connectivity broadcast on older devices.
+ */
+public class ConnectivityMonitor {
+    private static final ConnectivityMonitor connectivityMonitor = new ConnectivityMonitor();
+    private static final String EXTRA_AIRPLANE_STATE = "state";
+
+    private volatile Snapshot snapshot = null;
+    private Context context = null;
+    private ConnectivityManager.NetworkCallback networkCallback = null;
+    private BroadcastReceiver connectivityReceiver = null;
+    private BroadcastReceiver airplaneModeReceiver = null;
+    private ConnectivityListener listener = null;
+
+    public static ConnectivityMonitor getManager() {
+        return connectivityMonitor;
+    }
+
+    private ConnectivityMonitor() {
+    }
+
+    public synchronized void setListener(ConnectivityListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Method to start watching the connectivity. Safe to call more than once.
+     * @param context   any context of the app
+     */
+    public synchronized void start(Context context) {
+        if (this.context != null || context == null) {
+            return;
+        }
+        Logger.method(this, "start");
+        this.context = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        ConnectivityManager manager = connectivityManager();
+        NetworkInfo info = (manager == null) ? null : manager.getActiveNetworkInfo();
+        boolean connected = info != null && info.isConnected();
+        boolean callbackApi = manager != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+        // the network callback reports the current network right after the registration
+        snapshot = new Snapshot(connected, readAirplaneMode(this.context), (connected && !callbackApi) ? info.getType() : null);
+        if (callbackApi) {
+            final boolean defaultNetwork = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N;
+            networkCallback = new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(Network network) {
+                    // without the default network callback every network with internet is reported,
+                    // so only a lost network tells that the connections have to move
+                    updateNetwork(true, defaultNetwork ? network : null, false);
+                }
+
+                @Override
+                public void onLost(Network network) {
+                    NetworkInfo info = activeNetworkInfo();
+                    boolean connected = info != null && info.isConnected();
+                    Snapshot current = snapshot;
+                    boolean sameNetwork = current != null && network.equals(current.network);
+                    updateNetwork(connected, (connected && !sameNetwork && current != null) ? current.network : null, connected && (sameNetwork || !defaultNetwork));
+                }
+            };
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                manager.registerDefaultNetworkCallback(networkCallback);
+            } else {
+                manager.registerNetworkCallback(new NetworkRequest.Builder().addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET).build(), networkCallback);
+            }
+        } else {
+            connectivityReceiver = new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    refreshNetwork();
+                }
+            };
+            this.context.registerReceiver(connectivityReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+        }
+        airplaneModeReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                updateAirplaneMode(intent.getBooleanExtra(EXTRA_AIRPLANE_STATE, false));
+            }
+        };
+        this.context.registerReceiver(airplaneModeReceiver, new IntentFilter(Intent.ACTION_AIRPLANE_MODE_CHANGED));
+    }
+
+    /**
+     * Method to stop watching the connectivity
+     */
+    public synchronized void stop() {
+        if (context == null) {
+            return;
+        }
+        Logger.method(this, "stop");
+        ConnectivityManager manager = connectivityManager();
+        if (networkCallback != null && manager != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            manager.unregisterNetworkCallback(networkCallback);
+        }
+        if (connectivityReceiver != null) {
+            context.unregisterReceiver(connectivityReceiver);
+        }
+        context.unregisterReceiver(airplaneModeReceiver);
+        networkCallback = null;
+        connectivityReceiver = null;
+        airplaneModeReceiver = null;
+        snapshot = null;
+        context = null;
+    }
+
+    /**
+     * Method to check whether the monitor has a state
+     * @return  true if start() was called
+     */
+    public boolean isStarted() {
+        return snapshot != null;
+    }
+
+    public boolean isNetworkAvailable() {
+        Snapshot current = snapshot;
+        return current != null && current.networkAvailable;
+    }
+
+    public boolean isAirplaneModeOn() {
+        Snapshot current = snapshot;
+        return current != null && current.airplaneMode;
+    }
+
+    /**
+     * Method to read the airplane mode from the settings provider
+     * @param context   context to get the content resolver
+     * @return          true if the airplane mode is on
+     */
+    public static boolean readAirplaneMode(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return Settings.System.getInt(context.getContentResolver(), Settings.System.AIRPLANE_MODE_ON, 0) != 0;
+        } else {
+            return Settings.Global.getInt(context.getContentResolver(), Settings.Global.AIRPLANE_MODE_ON, 0) != 0;
+        }
+    }
+
+    private ConnectivityManager connectivityManager() {
+        return (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    private synchronized NetworkInfo activeNetworkInfo() {
+        if (context == null) {
+            return null;
+        }
+        ConnectivityManager manager = connectivityManager();
+        return (manager == null) ? null : manager.getActiveNetworkInfo();
+    }
+
+    /**
+     * Method to read the active network again after a connectivity broadcast
+     */
+    private void refreshNetwork() {
+        NetworkInfo info = activeNetworkInfo();
+        boolean connected = info != null && info.isConnected();
+        updateNetwork(connected, connected ? info.getType() : null, false);
+    }
+
+    /**
+     * Method to update the network part of the snapshot
+     * @param available     true if there is a connected network
+     * @param network       identity of the active network, or null if it is not known
+     * @param changed       true if the active network is known to be replaced
+     */
+    private void updateNetwork(boolean available, Object network, boolean changed) {
+        Snapshot previous;
+        Snapshot current;
+        ConnectivityListener connectivityListener;
+        synchronized (this) {
+            previous = snapshot;
+            if (previous == null) {
+                return;
+            }
+            current = new Snapshot(available, previous.airplaneMode, network);
+            snapshot = current;
+            connectivityListener = listener;
+        }
+        notifyChange(previous, current, changed, connectivityListener);
+    }
+
+    private void updateAirplaneMode(boolean airplaneMode) {
+        Snapshot previous;
+        Snapshot current;
+        ConnectivityListener connectivityListener;
+        synchronized (this) {
+            previous = snapshot;
+            if (previous == null) {
+                return;
+            }
+            current = new Snapshot(previous.networkAvailable, airplaneMode, previous.network);
+            snapshot = current;
+            connectivityListener = listener;
+        }
+        notifyChange(previous, current, false, connectivityListener);
+    }
+
+    private void notifyChange(Snapshot previous, Snapshot current, boolean changed, ConnectivityListener connectivityListener) {
+        if (connectivityListener == null) {
+            return;
+        }
+        if (previous.isUsable() && !current.isUsable()) {
+            Logger.message("ConnectivityMonitor :: Network is lost");
+            connectivityListener.onNetworkLost();
+        } else if (!previous.isUsable() && current.isUsable()) {
+            Logger.message("ConnectivityMonitor :: Network is available");
+            connectivityListener.onNetworkAvailable();
+        } else if (current.isUsable() && (changed || (previous.network != null && current.network != null && !previous.network.equals(current.network)))) {
+            Logger.message("ConnectivityMonitor :: Network is changed");
+            connectivityListener.onNetworkChanged();
+        }
+    }
+
+    /**
+     * Immutable state of the connectivity
+     */
+    private static class Snapshot {
+        private final boolean networkAvailable;
+        private final boolean airplaneMode;
+        /** Network on API 21+, else the type of the active network */
+        private final Object network;
+
+        Snapshot(boolean networkAvailable, boolean airplaneMode, Object network) {
+            this.networkAvailable = networkAvailable;
+            this.airplaneMode = airplaneMode;
+            this.network = network;
+        }
+
+        boolean isUsable() {
+            return networkAvailable && !airplaneMode;
+        }
+    }
+
+    /**
+     * Listener for the connectivity changes
+     */
+    public interface ConnectivityListener {
+        void onNetworkLost();
+
+        void onNetworkAvailable();
+
+        /** default network is switched, for example from wifi to mobile data */
+        void onNetworkChanged();
+    }
+}
@@ -51,7 +51,9 @@ public class DataManager {
         if (versionName == null) {
             try {
                 PackageInfo pInfo = applicationContext.getPackageManager().getPackageInfo(applicationContext.getPackageName(), 0);
-                return pInfo.versionName;
+                versionName = pInfo.versionName;
+                buildNumber = pInfo.versionCode;
+                return versionName;
             } catch (Exception e) {
                 return null;
             }
@@ -68,7 +70,9 @@ public class DataManager {
         if (buildNumber == -1) {
             try {
                 PackageInfo pInfo = applicationContext.getPackageManager().getPackageInfo(applicationContext.getPackageName(), 0);
-                return pInfo.versionCode;
+                versionName = pInfo.versionName;
+                buildNumber = pInfo.versionCode;
+                return buildNumber;
             } catch (Exception e) {
                 return -1;
             }
@@ -3,6 +3,11 @@ package com.vimo.network.manager;
 import com.vimo.network.helper.Logger;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -10,7 +15,12 @@ import java.util.Random;
  */
 public class DsDomainManager {
     private static final DsDomainManager domainManager = new DsDomainManager();
+    private static final double LATENCY_WEIGHT = 0.3;           // weight of the newest sample in the average
+    private static final long BASE_EJECTION_TIME = 5 * 1000;    // in milli seconds
+    private static final long MAX_EJECTION_TIME = 5 * 60 * 1000;
     private ArrayList<String> dsDomains = new ArrayList<>();
+    private Map<String, DomainStats> domainStats = new HashMap<>();
+    private final Random random = new Random();
     private int dsPortNo;
 
     public static DsDomainManager getManager() {
@@ -20,7 +30,7 @@ public class DsDomainManager {
     private DsDomainManager() {
     }
 
-    public void addDsDomain(String domain) {
+    public synchronized void addDsDomain(String domain) {
         Logger.method(this, "addDsDomain");
         if (dsDomains.contains(domain)) {
             Logger.error(domain + " is already available in the stack");
@@ -29,17 +39,131 @@ public class DsDomainManager {
         }
     }
 
-    public void addDsDomain(ArrayList<String> domains) {
+    public synchronized void addDsDomain(ArrayList<String> domains) {
         Logger.method(this, "addDsDomain");
-        dsDomains.addAll(domains);
+        for (String domain : domains) {
+            if (!dsDomains.contains(domain)) {
+                dsDomains.add(domain);
+            }
+        }
+    }
+
+    /**
+     * Method to select the directory service domain.
+     * Healthy domains with the lowest average connect latency are preferred. Domains without
+     * any measurement yet are tried first. Equal domains are picked at random, so the clients
+     * do not all start on the first domain of the list. If every domain is ejected, the one
+     * which comes back first is used.
+     * @return  selected domain
+     */
+    public synchronized String myDomain() {
+        long now = System.currentTimeMillis();
+        String selected = null;
+        double selectedLatency = Double.MAX_VALUE;
+        int ties = 0;
+        String fallback = null;
+        long fallbackUntil = Long.MAX_VALUE;
+        for (String domain : dsDomains) {
+            DomainStats stats = statsOf(domain);
+            if (stats.ejectedUntil > now) {
+                if (stats.ejectedUntil < fallbackUntil) {
+                    fallback = domain;
+                    fallbackUntil = stats.ejectedUntil;
+                }
+                continue;
+            }
+            double latency = (stats.latency < 0) ? 0 : stats.latency;
+            if (latency < selectedLatency) {
+                selected = domain;
+                selectedLatency = latency;
+                ties = 1;
+            } else if (latency == selectedLatency && random.nextInt(++ties) == 0) {
+                // each of the equal domains ends up selected with the same chance
+                selected = domain;
+            }
+        }
+        if (selected == null) {
+            Logger.error("DsDomainManager :: All directory service domains are ejected. Using " + fallback);
+            selected = fallback;
+        }
+        return selected;
+    }
+
+    /**
+     * Method to get all the domains in order of preference
+     * @return  healthy domains by average latency, followed by the ejected domains. Equal domains are in random order
+     */
+    public synchronized List<String> rankedDomains() {
+        final long now = System.currentTimeMillis();
+        List<String> ranked = new ArrayList<>(dsDomains);
+        // the sort is stable. shuffling first breaks the ties at random
+        Collections.shuffle(ranked, random);
+        Collections.sort(ranked, new Comparator<String>() {
+            @Override
+            public int compare(String first, String second) {
+                DomainStats firstStats = statsOf(first);
+                DomainStats secondStats = statsOf(second);
+                boolean firstEjected = firstStats.ejectedUntil > now;
+                boolean secondEjected = secondStats.ejectedUntil > now;
+                if (firstEjected != secondEjected) {
+                    return firstEjected ? 1 : -1;
+                }
+                if (firstEjected) {
+                    return (firstStats.ejectedUntil < secondStats.ejectedUntil) ? -1 : ((firstStats.ejectedUntil == secondStats.ejectedUntil) ? 0 : 1);
+                }
+                return Double.compare(Math.max(firstStats.latency, 0), Math.max(secondStats.latency, 0));
+            }
+        });
+        return ranked;
+    }
+
+    /**
+     * Method to get the number of configured domains
+     * @return  domain count
+     */
+    public synchronized int getDomainCount() {
+        return dsDomains.size();
     }
 
-    public String myDomain() {
-        int selected = 0;
-        if (dsDomains.size() > 1) {
-            selected = new Random().nextInt(dsDomains.size());
+    /**
+     * Method to record a successful connection to a domain
+     * @param domain    connected domain
+     * @param latency   time taken to connect in milli seconds
+     */
+    public synchronized void reportSuccess(String domain, long latency) {
+        if (domain == null) {
+            return;
         }
-        return dsDomains.get(selected);
+        DomainStats stats = statsOf(domain);
+        stats.latency = (stats.latency < 0) ? latency : (LATENCY_WEIGHT * latency + (1 - LATENCY_WEIGHT) * stats.latency);
+        stats.failures = 0;
+        stats.ejectedUntil = 0;
+        Logger.message("DsDomainManager :: " + domain + " connected in " + latency + " ms. Average :: " + (long) stats.latency + " ms");
+    }
+
+    /**
+     * Method to record a failed connection to a domain. The domain is ejected for a time
+     * which doubles on every consecutive failure.
+     * @param domain    failed domain
+     */
+    public synchronized void reportFailure(String domain) {
+        if (domain == null) {
+            return;
+        }
+        DomainStats stats = statsOf(domain);
+        stats.failures++;
+        long ejection = BASE_EJECTION_TIME << Math.min(stats.failures - 1, 16);
+        stats.ejectedUntil = System.currentTimeMillis() + Math.min(ejection, MAX_EJECTION_TIME);
+        Logger.error("DsDomainManager :: " + domain + " failed " + stats.failures + " time(s). Ejected for " + Math.min(ejection, MAX_EJECTION_TIME) + " ms");
+    }
+
+    private DomainStats statsOf(String domain) {
+        DomainStats stats = domainStats.get(domain);
+        if (stats == null) {
+            stats = new DomainStats();
+            domainStats.put(domain, stats);
+        }
+        return stats;
     }
 
     public void setDsPortNo(int dsPortNo) {
@@ -49,4 +173,10 @@ public class DsDomainManager {
     public int myPortNo() {
         return dsPortNo;
     }
+
+    private static class DomainStats {
+        private double latency = -1;    // moving average of the connect time, -1 if not measured yet
+        private int failures;
+        private long ejectedUntil;
+    }
 }
@@ -0,0 +1,101 @@
+package com.vimo.network.manager;
+
+import com.vimo.network.helper.HexCodec;
+import com.vimo.network.helper.PayloadCompressor;
+import com.vimo.network.model.RequestInfo;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Builds the "req" envelope and opens the "res" envelope exchanged with the components.
+ * Encrypted payloads travel either as hex strings (old servers) or as socket.io binary
+ * attachments when the component has announced binary support in its directory service entry.
+ * Components with compression support get payloads above the size threshold deflated before the encryption.
+ */
+public class EnvelopeCodec {
+    /** envelope keys */
+    public static final String KEY_REQUEST_ID = "reqid";
+    public static final String KEY_RPC = "rpc";
+    public static final String KEY_HAS_SALT = "hasSalt";
+    public static final String KEY_DATA = "data";
+    public static final String KEY_RESPONSE = "response";
+    public static final String KEY_BINARY = "binary";
+    public static final String KEY_COMPRESSED = "zip";
+    public static final String KEY_ACCEPT_COMPRESSED = "acceptZip";
+    /** compression threshold value to disable the compression */
+    public static final int COMPRESSION_DISABLED = -1;
+
+    private EnvelopeCodec() {
+    }
+
+    /**
+     * Method to create the encrypted request envelope
+     * @param requestInfo request to send
+     * @param hasSalt     value for the hasSalt flag
+     * @param binary      true to send the cipher bytes as binary attachment, false to send hex
+     * @param compressionThreshold minimum payload size in bytes to compress, or COMPRESSION_DISABLED
+     * @return            envelope to emit as "req" event
+     */
+    public static JSONObject createRequest(RequestInfo requestInfo, boolean hasSalt, boolean binary, int compressionThreshold) throws Exception {
+        byte[] input = requestInfo.getParam().json().getBytes(VimoEncryption.DEFAULT_CODING);
+        byte[] compressed = null;
+        if (compressionThreshold != COMPRESSION_DISABLED && input.length >= compressionThreshold) {
+            compressed = PayloadCompressor.deflate(input, 0, input.length);
+        }
+        byte[] encrypted = (compressed != null) ? VimoEncryption.encryptBytes(compressed, 0, compressed.length) : VimoEncryption.encryptBytes(input, 0, input.length);
+        JSONObject reqObj = new JSONObject();
+        reqObj.put(KEY_REQUEST_ID, requestInfo.getWireId());
+        reqObj.put(KEY_RPC, requestInfo.getRpc());
+        reqObj.put(KEY_HAS_SALT, hasSalt);
+        if (compressionThreshold != COMPRESSION_DISABLED) {
+            reqObj.put(KEY_ACCEPT_COMPRESSED, true);
+        }
+        if (compressed != null) {
+            reqObj.put(KEY_COMPRESSED, true);
+        }
+        if (binary) {
+            reqObj.put(KEY_BINARY, true);
+            reqObj.put(KEY_DATA, encrypted);
+        } else {
+            reqObj.put(KEY_DATA, HexCodec.encode(encrypted));
+        }
+        return reqObj;
+    }
+
+    /**
+     * Method to decrypt the payload of a "res" envelope.
+     * Works for both hex and binary responses and inflates compressed payloads.
+     * @param response  envelope received from the component
+     * @return          decrypted payload bytes
+     */
+    public static byte[] decryptResponseBytes(Object response) throws Exception {
+        JSONObject envelope = (JSONObject) response;
+        Object data = envelope.get(KEY_RESPONSE);
+        byte[] decrypted;
+        if (data instanceof byte[]) {
+            decrypted = VimoEncryption.decryptBytes((byte[]) data);
+        } else if (data instanceof String) {
+            decrypted = VimoEncryption.decryptBytes(HexCodec.decode((String) data));
+        } else {
+            throw new JSONException("EnvelopeCodec :: Unsupported response payload :: " + data);
+        }
+        if (envelope.optBoolean(KEY_COMPRESSED, false)) {
+            return PayloadCompressor.inflate(decrypted);
+        }
+        return decrypted;
+    }
+
+    /**
+     * Method to decrypt the payload of a "res" envelope.
+     * Apps should use this instead of decrypting the "response" string by themselves,
+     * because components with binary support send the payload as byte array.
+     * @param response  envelope received from the component
+     * @return          decrypted payload
+     */
+    public static String decryptResponse(Object response) throws Exception {
+        return new String(decryptResponseBytes(response), VimoEncryption.DEFAULT_CODING);
+    }
+}
@@ -0,0 +1,200 @@
+package com.vimo.network.manager;
+
+import com.vimo.network.helper.Logger;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Keeps the connections which are not needed anymore open for a linger time, so a request coming
+ * back soon does not pay the lookup and the connect again. Connections are closed lazily when the
+ * linger time is over, or right away when more than the allowed number of connections are idle.
+ * Components which still have work are only checked again later and never count as idle.
+ * The listener is always called from the timeout thread, never from inside markIdle().
+ */
+public class IdleConnectionManager {
+    private static final IdleConnectionManager idleConnectionManager = new IdleConnectionManager();
+
+    /** idle components in the order they became idle */
+    private final Map<String, IdleEntry> idleComponents = new LinkedHashMap<>();
+    private IdleListener listener = null;
+    private int maxIdleConnections = 4;
+
+    public static IdleConnectionManager getManager() {
+        return idleConnectionManager;
+    }
+
+    private IdleConnectionManager() {
+    }
+
+    public synchronized void setListener(IdleListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Method to set the number of idle connections kept open
+     * @param maxIdleConnections maximum idle connections. Oldest idle connection is closed first
+     */
+    public synchronized void setMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = Math.max(0, maxIdleConnections);
+    }
+
+    /**
+     * Method to keep the connection of a component open until the linger time is over
+     * @param componentName idle component
+     * @param delay         time in milli seconds until the connection is closed
+     */
+    public void markIdle(String componentName, long delay) {
+        schedule(componentName, delay, false);
+    }
+
+    /**
+     * Method to check a component again later because it still has work. The component does not
+     * count as idle, so it is never closed to make room for the other idle connections.
+     * @param componentName busy component
+     * @param delay         time in milli seconds until the next check
+     */
+    public void recheck(String componentName, long delay) {
+        schedule(componentName, delay, true);
+    }
+
+    private void schedule(final String componentName, long delay, boolean busy) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            IdleEntry previous = idleComponents.remove(componentName);
+            if (previous != null) {
+                previous.timeout.cancel();
+            }
+            final IdleEntry entry = new IdleEntry();
+            entry.busy = busy;
+            entry.timeout = TimeoutManager.getManager().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    expire(componentName, entry);
+                }
+            }, Math.max(0, delay));
+            idleComponents.put(componentName, entry);
+            Logger.message("IdleConnectionManager :: " + (busy ? "Checking " + componentName + " again in " : "Keeping " + componentName + " open for ") + Math.max(0, delay) + " ms");
+            int idleCount = 0;
+            for (IdleEntry idleEntry : idleComponents.values()) {
+                if (!idleEntry.busy) {
+                    idleCount++;
+                }
+            }
+            Iterator<Map.Entry<String, IdleEntry>> iterator = idleComponents.entrySet().iterator();
+            while (idleCount > maxIdleConnections && iterator.hasNext()) {
+                Map.Entry<String, IdleEntry> eldest = iterator.next();
+                if (eldest.getValue().busy) {
+                    continue;
+                }
+                eldest.getValue().timeout.cancel();
+                iterator.remove();
+                idleCount--;
+                evicted.add(eldest.getKey());
+            }
+        }
+        for (final String name : evicted) {
+            Logger.message("IdleConnectionManager :: Too many idle connections. Closing " + name);
+            // the caller might be the listener itself. close the connection from the timeout thread
+            TimeoutManager.getManager().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    notifyIdle(name);
+                }
+            }, 0);
+        }
+    }
+
+    /**
+     * Method to take a component out of the idle list because it is used again
+     * @param componentName component which got a new request
+     * @return              true if the component was idle
+     */
+    public synchronized boolean touch(String componentName) {
+        IdleEntry entry = idleComponents.remove(componentName);
+        if (entry == null) {
+            return false;
+        }
+        entry.timeout.cancel();
+        Logger.message("IdleConnectionManager :: Reusing idle connection of " + componentName);
+        return true;
+    }
+
+    /**
+     * Method to forget a component whose connection is already closed
+     * @param componentName closed component
+     */
+    public synchronized void forget(String componentName) {
+        IdleEntry entry = idleComponents.remove(componentName);
+        if (entry != null) {
+            entry.timeout.cancel();
+        }
+    }
+
+    /**
+     * Method to close all the idle connections right away
+     */
+    public void closeAll() {
+        List<String> names;
+        synchronized (this) {
+            names = new ArrayList<>(idleComponents.keySet());
+            for (IdleEntry entry : idleComponents.values()) {
+                entry.timeout.cancel();
+            }
+            idleComponents.clear();
+        }
+        for (String name : names) {
+            notifyIdle(name);
+        }
+    }
+
+    public synchronized int getIdleCount() {
+        int idleCount = 0;
+        for (IdleEntry entry : idleComponents.values()) {
+            if (!entry.busy) {
+                idleCount++;
+            }
+        }
+        return idleCount;
+    }
+
+    private void expire(String componentName, IdleEntry entry) {
+        synchronized (this) {
+            if (idleComponents.get(componentName) != entry) {
+                // component is used again or marked idle once more
+                return;
+            }
+            idleComponents.remove(componentName);
+        }
+        Logger.message("IdleConnectionManager :: Linger time is over for " + componentName);
+        notifyIdle(componentName);
+    }
+
+    private void notifyIdle(String componentName) {
+        IdleListener idleListener;
+        synchronized (this) {
+            idleListener = listener;
+        }
+        if (idleListener != null) {
+            idleListener.onIdleTimeout(componentName);
+        }
+    }
+
+    private static class IdleEntry {
+        private TimeoutManager.Timeout timeout;
+        /** true if the component is only checked again, without being idle */
+        private boolean busy;
+    }
+
+    /**
+     * Listener which closes the connection of an idle component
+     */
+    public interface IdleListener {
+        void onIdleTimeout(String componentName);
+    }
+}
@@ -0,0 +1,146 @@
+package com.vimo.network.manager;
+
+import com.vimo.network.helper.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Negative cache for the directory service lookups. After a failed lookup the component is
+ * blocked for a back off time which doubles on every consecutive failure. Requests during that
+ * time fail locally with the cached error instead of asking the directory service again.
+ */
+public class LookupBackoff {
+    private static final LookupBackoff lookupBackoff = new LookupBackoff();
+    private static final String devSuffix = "#dev";
+    /** default back off after the first failure in milli seconds */
+    public static final long DEFAULT_BASE_BACKOFF = 1000;
+    /** default upper limit of the back off in milli seconds */
+    public static final long DEFAULT_MAX_BACKOFF = 60 * 1000;
+
+    private final Map<String, Failure> failures = new HashMap<>();
+    private long baseBackoff = DEFAULT_BASE_BACKOFF;
+    private long maxBackoff = DEFAULT_MAX_BACKOFF;
+    private boolean enabled = true;
+
+    public static LookupBackoff getManager() {
+        return lookupBackoff;
+    }
+
+    private LookupBackoff() {
+    }
+
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Method to configure the back off time
+     * @param baseBackoff   back off after the first failure in milli seconds
+     * @param maxBackoff    upper limit of the back off in milli seconds
+     */
+    public synchronized void setBackoff(long baseBackoff, long maxBackoff) {
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = Math.max(baseBackoff, maxBackoff);
+    }
+
+    /**
+     * Method to get the failure of a component which is still in back off
+     * @param componentName name of the component
+     * @param isDev         true for the dev version of the component
+     * @return              cached failure, or null if a lookup can be sent
+     */
+    public synchronized Failure get(String componentName, boolean isDev) {
+        if (!enabled) {
+            return null;
+        }
+        Failure failure = failures.get(cacheKey(componentName, isDev));
+        if (failure == null || failure.blockedUntil <= System.currentTimeMillis()) {
+            // keep the entry. the failure count is needed if the next lookup fails again
+            return null;
+        }
+        return failure.copy();
+    }
+
+    /**
+     * Method to record a failed lookup
+     * @param componentName name of the component
+     * @param isDev         true for the dev version of the component
+     * @param error         error message sent to the callbacks
+     * @param errorCode     error code sent to the callbacks
+     */
+    public synchronized void reportFailure(String componentName, boolean isDev, String error, int errorCode) {
+        if (!enabled || componentName == null) {
+            return;
+        }
+        String key = cacheKey(componentName, isDev);
+        Failure failure = failures.get(key);
+        if (failure == null) {
+            failure = new Failure();
+            failures.put(key, failure);
+        }
+        failure.count++;
+        long backoff = Math.min(baseBackoff << Math.min(failure.count - 1, 16), maxBackoff);
+        failure.blockedUntil = System.currentTimeMillis() + backoff;
+        failure.error = error;
+        failure.errorCode = errorCode;
+        Logger.error("LookupBackoff :: Lookup of " + key + " failed " + failure.count + " time(s). Blocked for " + backoff + " ms");
+    }
+
+    /**
+     * Method to forget the failures of a component after a successful lookup
+     * @param componentName name of the component
+     * @param isDev         true for the dev version of the component
+     */
+    public synchronized void reportSuccess(String componentName, boolean isDev) {
+        failures.remove(cacheKey(componentName, isDev));
+    }
+
+    public synchronized void clear() {
+        failures.clear();
+    }
+
+    private static String cacheKey(String componentName, boolean isDev) {
+        return isDev ? componentName + devSuffix : componentName;
+    }
+
+    /**
+     * Cached result of a failed lookup
+     */
+    public static class Failure {
+        private int count;
+        private long blockedUntil;
+        private String error;
+        private int errorCode;
+
+        private Failure copy() {
+            Failure copy = new Failure();
+            copy.count = count;
+            copy.blockedUntil = blockedUntil;
+            copy.error = error;
+            copy.errorCode = errorCode;
+            return copy;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public int getErrorCode() {
+            return errorCode;
+        }
+
+        /**
+         * Method to get the remaining back off time
+         * @return  time in milli seconds
+         */
+        public long getRemainingTime() {
+            return Math.max(0, blockedUntil - System.currentTimeMillis());
+        }
+    }
+}
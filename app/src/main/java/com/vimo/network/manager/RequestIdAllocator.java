@@ -0,0 +1,72 @@
+package com.vimo.network.manager;
+
+import com.vimo.network.listener.NetworkCodes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Allocates the request ids used inside the library. Every request gets its own wire id which is
+ * sent as "reqid" and used to match the answer, so the request id chosen by the app only has to
+ * make sense to its own listener. Request ids generated for the app come from their own range, so
+ * they never share a value with a wire id and stay away from the hand picked ids the app registers
+ * as exceptional or background ids. Ids are taken from atomic counters without any locking.
+ */
+public class RequestIdAllocator {
+    /** first wire id. Wire ids stay in the upper half of the positive range, away from the hand picked ids of the apps */
+    private static final int FIRST_WIRE_ID = 0x40000000;
+    /** first request id generated for the app. Generated request ids stay below the wire ids */
+    public static final int FIRST_GENERATED_REQUEST_ID = 0x20000000;
+    /** first internal lookup id. Lookup ids count down from the directory service limit */
+    private static final int FIRST_LOOKUP_ID = NetworkCodes.dsLookupRequestIdLimit - 1;
+
+    private static final AtomicInteger wireId = new AtomicInteger(FIRST_WIRE_ID);
+    private static final AtomicInteger requestId = new AtomicInteger(FIRST_GENERATED_REQUEST_ID);
+    private static final AtomicInteger lookupId = new AtomicInteger(FIRST_LOOKUP_ID);
+
+    private RequestIdAllocator() {
+    }
+
+    /**
+     * Method to get a new wire id
+     * @return  positive id, unique until the counter wraps around
+     */
+    public static int nextWireId() {
+        while (true) {
+            int current = wireId.get();
+            int next = (current == Integer.MAX_VALUE) ? FIRST_WIRE_ID : current + 1;
+            if (wireId.compareAndSet(current, next)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Method to get a new caller facing request id for the requests sent without an id of the app
+     * @return  id from FIRST_GENERATED_REQUEST_ID up to the first wire id, unique until the counter wraps around
+     */
+    public static int nextRequestId() {
+        while (true) {
+            int current = requestId.get();
+            int next = (current == FIRST_WIRE_ID - 1) ? FIRST_GENERATED_REQUEST_ID : current + 1;
+            if (requestId.compareAndSet(current, next)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Method to get a new id for the internal requests (directory service lookups and prewarm placeholders)
+     * @return  negative id below NetworkCodes.dsLookupRequestIdLimit
+     */
+    public static int nextLookupId() {
+        while (true) {
+            int current = lookupId.get();
+            int next = (current == Integer.MIN_VALUE) ? FIRST_LOOKUP_ID : current - 1;
+            if (lookupId.compareAndSet(current, next)) {
+                return current;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.vimo.network.manager;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Read only set of request ids with constant time lookup. Small non negative ids, which are the
+ * ones the apps pick by hand, are kept in a bit set. Other ids fall back to a hash set.
+ */
+public class RequestIdSet {
+    /** ids below this limit are kept in the bit set */
+    private static final int BIT_SET_LIMIT = 1 << 16;
+
+    private final BitSet smallIds = new BitSet();
+    private final Set<Integer> otherIds = new HashSet<>();
+
+    public RequestIdSet(Collection<Integer> requestIds) {
+        if (requestIds == null) {
+            return;
+        }
+        for (Integer requestId : requestIds) {
+            if (requestId == null) {
+                continue;
+            }
+            if (requestId >= 0 && requestId < BIT_SET_LIMIT) {
+                smallIds.set(requestId);
+            } else {
+                otherIds.add(requestId);
+            }
+        }
+    }
+
+    public boolean contains(int requestId) {
+        if (requestId >= 0 && requestId < BIT_SET_LIMIT) {
+            return smallIds.get(requestId);
+        }
+        return !otherIds.isEmpty() && otherIds.contains(requestId);
+    }
+}
@@ -0,0 +1,126 @@
+package com.vimo.network.manager;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.vimo.network.listener.NetworkCodes;
+import com.vimo.network.model.ComponentInfo;
+import com.vimo.network.model.RpcResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Decodes the decrypted directory service answers. The payload is read in one pass by a
+ * streaming reader, straight into the answer object, without building a json tree first.
+ */
+public class ResponseDecoder {
+    private static final Gson gson = new Gson();
+    private static final TypeAdapter<LookupAnswer> lookupAnswerAdapter = gson.getAdapter(LookupAnswer.class);
+
+    private ResponseDecoder() {
+    }
+
+    /**
+     * Method to get the shared Gson instance of the library
+     * @return  preconfigured Gson
+     */
+    public static Gson getGson() {
+        return gson;
+    }
+
+    /**
+     * Method to decode the decrypted directory service answer
+     * @param decrypted decrypted payload bytes
+     * @return          ComponentInfo for success status, else RpcResponse
+     */
+    public static Object decodeLookup(byte[] decrypted) throws Exception {
+        LookupAnswer answer = readAnswer(decrypted);
+        if (answer.status == NetworkCodes.EC_SUCCESS_CODE) {
+            return copyOf(answer);
+        }
+        return answer.toRpcResponse();
+    }
+
+    /**
+     * Method to decode the decrypted answer of a batched directory service lookup
+     * @param decrypted decrypted payload bytes
+     * @return          list of ComponentInfo for success status, else RpcResponse
+     */
+    public static Object decodeLookupList(byte[] decrypted) throws Exception {
+        LookupAnswer answer = readAnswer(decrypted);
+        if (answer.status != NetworkCodes.EC_SUCCESS_CODE) {
+            return answer.toRpcResponse();
+        }
+        if (answer.components == null) {
+            throw new JsonParseException("ResponseDecoder :: No component list in response");
+        }
+        return answer.components;
+    }
+
+    /**
+     * Method to read the payload once into the answer object
+     * @param decrypted decrypted payload bytes
+     * @return          status, message and component members of the answer
+     */
+    private static LookupAnswer readAnswer(byte[] decrypted) throws Exception {
+        JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(decrypted), VimoEncryption.DEFAULT_CODING));
+        try {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new JsonParseException("ResponseDecoder :: Response is not a json object");
+            }
+            LookupAnswer answer = lookupAnswerAdapter.read(reader);
+            if (answer.status == null) {
+                throw new JsonParseException("ResponseDecoder :: No status in response");
+            }
+            return answer;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Method to get a plain ComponentInfo of the answer. The answer type must not end up in the
+     * component cache, where gson would store its status and message members as well.
+     */
+    private static ComponentInfo copyOf(ComponentInfo answer) {
+        ComponentInfo info = new ComponentInfo();
+        info.setComponentName(answer.getComponentName());
+        info.setComponentIp(answer.getComponentIp());
+        info.setTokenTimeStamp(answer.getTokenTimeStamp());
+        info.setPublicIp(answer.getPublicIp());
+        info.setDomain(answer.getDomain());
+        info.setTlsEnabled(answer.isTlsEnabled());
+        info.setBinarySupported(answer.isBinarySupported());
+        info.setCompressionSupported(answer.isCompressionSupported());
+        info.setPort(answer.getPort());
+        info.setNport(answer.getNport());
+        info.setSipPort(answer.getSipPort());
+        info.setTlsPort(answer.getTlsPort());
+        return info;
+    }
+
+    /**
+     * Every member a directory service answer can have. The component members of a single lookup
+     * are on the top level next to the status, a batched lookup has them in the components list.
+     */
+    private static class LookupAnswer extends ComponentInfo {
+        private Integer status;
+        private String id;
+        private String msg;
+        private List<ComponentInfo> components;
+
+        RpcResponse toRpcResponse() {
+            RpcResponse response = new RpcResponse();
+            response.setStatus(status);
+            response.setId(id);
+            response.setMsg(msg);
+            return response;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.vimo.network.manager;
+
+import com.vimo.network.helper.Logger;
+import com.vimo.network.listener.ServerEventListener;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Subscription to one server event of a component. Events are kept in a bounded buffer until the
+ * executor of the subscription delivers them. The overflow policy decides what happens when the
+ * listener does not keep up with the server. Events arrive on the socket thread shared by every
+ * component, so that thread never waits for the listener. A blocking subscription hands its events
+ * over to its own intake thread, and only that thread waits for room in the buffer.
+ */
+public class Subscription {
+    /** drop the oldest buffered event to make room for the new one */
+    public static final int OVERFLOW_DROP_OLDEST = 0;
+    /** replace a buffered event with the same key, else drop the oldest one */
+    public static final int OVERFLOW_COALESCE = 1;
+    /** keep every event. The intake thread of the subscription waits for room instead of dropping one */
+    public static final int OVERFLOW_BLOCK = 2;
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final String componentName;
+    private final String eventName;
+    private final int capacity;
+    private final int overflowPolicy;
+    private final Executor executor;
+    private final ServerEventListener listener;
+    private final ArrayDeque<Event> buffer = new ArrayDeque<>();
+    private final ArrayDeque<Event> intake = new ArrayDeque<>();
+    private boolean intakeRunning = false;
+    private boolean draining = false;
+    private boolean cancelled = false;
+    private int droppedEvents = 0;
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drainEvents();
+        }
+    };
+
+    Subscription(String componentName, String eventName, int capacity, int overflowPolicy, Executor executor, ServerEventListener listener) {
+        this.componentName = componentName;
+        this.eventName = eventName;
+        this.capacity = Math.max(1, capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+    public String getComponentName() {
+        return componentName;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    /**
+     * Method to get the number of events lost by the overflow policy
+     * @return  dropped event count
+     */
+    public synchronized int getDroppedEvents() {
+        return droppedEvents;
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Method to stop the subscription. Buffered events are dropped.
+     */
+    public void cancel() {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            buffer.clear();
+            intake.clear();
+            // wakes up the intake thread waiting for room
+            notifyAll();
+        }
+        SubscriptionManager.getManager().remove(this);
+    }
+
+    /**
+     * Method to buffer an event and schedule its delivery
+     * @param key       coalescing key of the event
+     * @param payload   decrypted payload
+     */
+    void offer(String key, String payload) {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            if (overflowPolicy == OVERFLOW_BLOCK) {
+                // the socket thread only hands the event over. The intake thread waits for the room
+                intake.addLast(new Event(key, payload));
+                if (!intakeRunning) {
+                    intakeRunning = true;
+                    startIntake();
+                }
+                return;
+            }
+            if (overflowPolicy == OVERFLOW_COALESCE) {
+                for (Event event : buffer) {
+                    if (event.key.equals(key)) {
+                        // delivery is already scheduled for the buffered event
+                        event.payload = payload;
+                        return;
+                    }
+                }
+            }
+            while (buffer.size() >= capacity) {
+                buffer.pollFirst();
+                droppedEvents++;
+                Logger.error("Subscription :: Buffer of " + componentName + "/" + eventName + " is full. Dropping the oldest event");
+            }
+            buffer.addLast(new Event(key, payload));
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Method to tell the listener that the component could not be connected
+     * @param error     error message
+     * @param errorCode error code of the failure
+     */
+    void fail(final String error, final int errorCode) {
+        if (isCancelled()) {
+            return;
+        }
+        Runnable failure = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    listener.onSubscriptionFailed(componentName, eventName, error, errorCode);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                    Logger.error("Subscription :: Exception in event listener of " + componentName + "/" + eventName + " :: " + e.getMessage());
+                }
+            }
+        };
+        try {
+            executor.execute(failure);
+        } catch (RejectedExecutionException e) {
+            Logger.error("Subscription :: Executor rejected the failure. Delivering on the current thread :: " + e.getMessage());
+            failure.run();
+        }
+    }
+
+    private void startIntake() {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                intakeEvents();
+            }
+        }, "vimo-subscription-" + componentName + "/" + eventName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Method to move the handed over events into the buffer of a blocking subscription.
+     * Waits while the buffer is full, and ends once every handed over event is buffered.
+     */
+    private void intakeEvents() {
+        while (true) {
+            synchronized (this) {
+                while (!cancelled && buffer.size() >= capacity) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        Logger.error("Subscription :: Intake of " + componentName + "/" + eventName + " is interrupted. Dropping " + intake.size() + " event(s)");
+                        droppedEvents += intake.size();
+                        intake.clear();
+                        intakeRunning = false;
+                        return;
+                    }
+                }
+                Event event = intake.pollFirst();
+                if (cancelled || event == null) {
+                    intakeRunning = false;
+                    return;
+                }
+                buffer.addLast(event);
+                if (draining) {
+                    continue;
+                }
+                draining = true;
+            }
+            scheduleDrain();
+        }
+    }
+
+    private void scheduleDrain() {
+        try {
+            executor.execute(drain);
+        } catch (RejectedExecutionException e) {
+            Logger.error("Subscription :: Executor rejected the delivery. Delivering on the current thread :: " + e.getMessage());
+            drain.run();
+        }
+    }
+
+    /**
+     * Method to deliver the buffered events. One run delivers at most a buffer full of events,
+     * so a busy subscription can not keep the executor thread for ever.
+     */
+    private void drainEvents() {
+        for (int count = 0; count < capacity; count++) {
+            Event event;
+            synchronized (this) {
+                event = buffer.pollFirst();
+                if (event == null) {
+                    draining = false;
+                    return;
+                }
+                if (overflowPolicy == OVERFLOW_BLOCK) {
+                    notifyAll();
+                }
+            }
+            try {
+                listener.onEvent(componentName, eventName, event.payload);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                Logger.error("Subscription :: Exception in event listener of " + componentName + "/" + eventName + " :: " + e.getMessage());
+            }
+        }
+        synchronized (this) {
+            if (buffer.isEmpty()) {
+                draining = false;
+                return;
+            }
+        }
+        scheduleDrain();
+    }
+
+    private static class Event {
+        private final String key;
+        private String payload;
+
+        Event(String key, String payload) {
+            this.key = key;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.vimo.network.manager;
+
+import com.vimo.network.helper.Logger;
+import com.vimo.network.listener.ServerEventListener;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Routes the events pushed by the components to their subscriptions. A pushed event is a socket.io
+ * message with the envelope {"event": name, "key": optional coalescing key, "response": payload}.
+ * The payload is encrypted like the "res" envelope and decrypted once for all its subscriptions.
+ */
+public class SubscriptionManager {
+    private static final SubscriptionManager subscriptionManager = new SubscriptionManager();
+    public static final String KEY_EVENT = "event";
+    public static final String KEY_EVENT_KEY = "key";
+
+    /** subscriptions by component. Events are read on the socket threads without locking */
+    private final ConcurrentHashMap<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    public static SubscriptionManager getManager() {
+        return subscriptionManager;
+    }
+
+    private SubscriptionManager() {
+    }
+
+    /**
+     * Method to subscribe to an event of a component
+     * @param componentName   component which pushes the event
+     * @param eventName       name of the event
+     * @param capacity        number of events buffered until the listener takes them
+     * @param overflowPolicy  one of the Subscription.OVERFLOW_ policies
+     * @param executor        executor to run the listener
+     * @param listener        listener of the events
+     * @return                subscription. Cancel it to stop the events
+     */
+    public synchronized Subscription subscribe(String componentName, String eventName, int capacity, int overflowPolicy, Executor executor, ServerEventListener listener) {
+        Logger.method(this, "subscribe :: " + componentName + " :: " + eventName);
+        Subscription subscription = new Subscription(componentName, eventName, capacity, overflowPolicy, executor, listener);
+        List<Subscription> list = subscriptions.get(componentName);
+        if (list == null) {
+            list = new CopyOnWriteArrayList<>();
+            subscriptions.put(componentName, list);
+        }
+        list.add(subscription);
+        return subscription;
+    }
+
+    synchronized void remove(Subscription subscription) {
+        Logger.method(this, "unsubscribe :: " + subscription.getComponentName() + " :: " + subscription.getEventName());
+        List<Subscription> list = subscriptions.get(subscription.getComponentName());
+        if (list == null) {
+            return;
+        }
+        list.remove(subscription);
+        if (list.isEmpty()) {
+            subscriptions.remove(subscription.getComponentName());
+        }
+    }
+
+    /**
+     * Method to check whether a component has to stay connected for its subscriptions
+     * @param componentName name of the component
+     * @return              true if there is any subscription to the component
+     */
+    public boolean hasSubscriptions(String componentName) {
+        return componentName != null && subscriptions.containsKey(componentName);
+    }
+
+    public List<String> getSubscribedComponents() {
+        return new ArrayList<>(subscriptions.keySet());
+    }
+
+    /**
+     * Method to tell the subscriptions of a component that it could not be connected
+     * @param componentName component which failed
+     * @param error         error message
+     * @param errorCode     error code of the failure
+     */
+    public void notifyFailure(String componentName, String error, int errorCode) {
+        List<Subscription> list = (componentName == null) ? null : subscriptions.get(componentName);
+        if (list == null) {
+            return;
+        }
+        for (Subscription subscription : list) {
+            subscription.fail(error, errorCode);
+        }
+    }
+
+    /**
+     * Method to hand a message pushed by a component to the subscriptions of its event
+     * @param componentName component which sent the message
+     * @param message       socket.io message
+     */
+    public void onEvent(String componentName, Object message) {
+        if (!(message instanceof JSONObject)) {
+            Logger.message("SubscriptionManager :: Ignoring message of " + componentName + " :: " + message);
+            return;
+        }
+        JSONObject envelope = (JSONObject) message;
+        String eventName = envelope.optString(KEY_EVENT, null);
+        List<Subscription> list = (componentName == null) ? null : subscriptions.get(componentName);
+        if (eventName == null || list == null) {
+            Logger.message("SubscriptionManager :: No subscription for " + componentName + " :: " + eventName);
+            return;
+        }
+        List<Subscription> receivers = new ArrayList<>();
+        for (Subscription subscription : list) {
+            if (eventName.equals(subscription.getEventName())) {
+                receivers.add(subscription);
+            }
+        }
+        if (receivers.isEmpty()) {
+            Logger.message("SubscriptionManager :: No subscription for " + componentName + " :: " + eventName);
+            return;
+        }
+        String payload;
+        try {
+            payload = EnvelopeCodec.decryptResponse(envelope);
+        } catch (Exception e) {
+            e.printStackTrace();
+            Logger.error("SubscriptionManager :: Could not decrypt " + eventName + " event of " + componentName + " :: " + e.getMessage());
+            return;
+        }
+        String key = envelope.optString(KEY_EVENT_KEY, eventName);
+        for (Subscription subscription : receivers) {
+            subscription.offer(key, payload);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.vimo.network.manager;
+
+import com.vimo.network.helper.Logger;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Shared hashed timing wheel used for every request timeout in the library.
+ * One daemon thread ticks the wheel while there is at least one pending timeout,
+ * schedule and cancel are O(1) and the thread exits again when the wheel runs empty.
+ */
+public class TimeoutManager {
+    private static final TimeoutManager timeoutManager = new TimeoutManager();
+    private static final int TICK_DURATION = 50;    // in milli seconds
+    private static final int WHEEL_SIZE = 512;      // must be a power of two
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+    private final Object lock = new Object();
+    private Thread workerThread = null;
+    private long startTime;
+    private long tick;
+    private int pendingTimeouts;
+
+    public static TimeoutManager getManager() {
+        return timeoutManager;
+    }
+
+    private TimeoutManager() {
+        for (int index = 0; index < WHEEL_SIZE; index++) {
+            wheel[index] = new Bucket();
+        }
+    }
+
+    /**
+     * Method to schedule a task after the given delay
+     * @param task  task to run on the timer thread once the delay is over
+     * @param delay delay in milli seconds
+     * @return      handle to cancel the scheduled task
+     */
+    public Timeout schedule(Runnable task, long delay) {
+        Timeout timeout = new Timeout(task);
+        synchronized (lock) {
+            if (workerThread == null) {
+                startWorker();
+            }
+            long elapsed = now() - startTime;
+            long deadlineTick = (elapsed + Math.max(delay, 0) + TICK_DURATION - 1) / TICK_DURATION;
+            if (deadlineTick <= tick) {
+                deadlineTick = tick + 1;
+            }
+            timeout.remainingRounds = (deadlineTick - tick - 1) / WHEEL_SIZE;
+            wheel[(int) (deadlineTick & WHEEL_MASK)].add(timeout);
+            pendingTimeouts++;
+        }
+        return timeout;
+    }
+
+    /**
+     * Method to get the number of timeouts waiting in the wheel
+     * @return  count of pending timeouts
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pendingTimeouts;
+        }
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1000000L;
+    }
+
+    private void startWorker() {
+        startTime = now();
+        tick = 0;
+        workerThread = new Thread(new Worker(), "vimo-timeout-wheel");
+        workerThread.setDaemon(true);
+        workerThread.start();
+    }
+
+    private class Worker implements Runnable {
+        @Override
+        public void run() {
+            Bucket expired = new Bucket();
+            while (true) {
+                synchronized (lock) {
+                    if (pendingTimeouts == 0) {
+                        // nothing to watch. next schedule() will start a new worker
+                        workerThread = null;
+                        return;
+                    }
+                    long sleep = startTime + (tick + 1) * TICK_DURATION - now();
+                    if (sleep > 0) {
+                        try {
+                            lock.wait(sleep);
+                        } catch (InterruptedException e) {
+                            Logger.error("TimeoutManager :: Worker interrupted :: " + e);
+                        }
+                        continue;
+                    }
+                    tick++;
+                    wheel[(int) (tick & WHEEL_MASK)].expire(expired);
+                }
+                // callbacks are fired outside of the wheel lock
+                Timeout timeout = expired.head;
+                expired.head = null;
+                expired.tail = null;
+                while (timeout != null) {
+                    Timeout next = timeout.next;
+                    timeout.next = null;
+                    try {
+                        timeout.task.run();
+                    } catch (Exception e) {
+                        Logger.error("TimeoutManager :: Exception in timeout task :: " + e);
+                    }
+                    timeout = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Handle for a scheduled timeout
+     */
+    public class Timeout {
+        private final Runnable task;
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Runnable task) {
+            this.task = task;
+        }
+
+        /**
+         * Method to cancel the timeout
+         * @return  true if the timeout was cancelled before it fired, else false
+         */
+        public boolean cancel() {
+            synchronized (lock) {
+                if (bucket == null) {
+                    return false;
+                }
+                bucket.remove(this);
+                pendingTimeouts--;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts in one slot of the wheel. Guarded by the wheel lock.
+     */
+    private class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        /**
+         * Method to move all the due timeouts of this slot into the expired list
+         * @param expired list to collect the due timeouts
+         */
+        private void expire(Bucket expired) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    pendingTimeouts--;
+                    // the expired list is only used as a singly linked queue
+                    if (expired.tail == null) {
+                        expired.head = timeout;
+                    } else {
+                        expired.tail.next = timeout;
+                    }
+                    expired.tail = timeout;
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.vimo.network.manager;
 
 import com.vimo.network.ViMoNetApplication;
+import com.vimo.network.helper.HexCodec;
 
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 
 import javax.crypto.Cipher;
@@ -15,48 +17,122 @@ public class VimoEncryption {
 
     public static final String DEFAULT_CODING = "utf-8";
 
+    private static volatile KeyContext keyContext = null;
+    private static final ThreadLocal<CipherHolder> cipherHolder = new ThreadLocal<CipherHolder>() {
+        @Override
+        protected CipherHolder initialValue() {
+            return new CipherHolder();
+        }
+    };
+
     public static String encrypt(String content) throws Exception {
         byte[] input = content.getBytes(DEFAULT_CODING);
-        MessageDigest md = MessageDigest.getInstance("MD5");
-        byte[] thedigest = md.digest(ViMoNetApplication.getApplication().getVimoKey().getBytes(DEFAULT_CODING));
-        SecretKeySpec skc = new SecretKeySpec(thedigest, "AES");
-        Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
-        cipher.init(Cipher.ENCRYPT_MODE, skc);
-        byte[] cipherText = new byte[cipher.getOutputSize(input.length)];
-        int ctLength = cipher.update(input, 0, input.length, cipherText, 0);
-        ctLength += cipher.doFinal(cipherText, ctLength);
-        return parseByte2HexStr(cipherText);
+        return HexCodec.encode(encryptBytes(input, 0, input.length));
     }
 
     public static String decrypt(String encrypted) throws Exception {
-        byte[] keyb = ViMoNetApplication.getApplication().getVimoKey().getBytes(DEFAULT_CODING);
-        MessageDigest md = MessageDigest.getInstance("MD5");
-        byte[] thedigest = md.digest(keyb);
-        SecretKeySpec skey = new SecretKeySpec(thedigest, "AES");
-        Cipher dcipher = Cipher.getInstance("AES");
-        dcipher.init(Cipher.DECRYPT_MODE, skey);
-        byte[] clearbyte = dcipher.doFinal(toByte(encrypted));
-        return new String(clearbyte);
-    }
-
-    private static byte[] toByte(String hexString) {
-        int len = hexString.length() / 2;
-        byte[] result = new byte[len];
-        for (int i = 0; i <len; i++) {
-            result[i] = Integer.valueOf(hexString.substring(2 * i, 2 * i + 2), 16).byteValue();
+        return new String(decryptBytes(HexCodec.decode(encrypted)));
+    }
+
+    /**
+     * Method to encrypt raw bytes without any text encoding
+     * @param input  plain bytes
+     * @param off    start position in input
+     * @param len    number of bytes to encrypt
+     * @return       cipher bytes
+     */
+    public static byte[] encryptBytes(byte[] input, int off, int len) throws Exception {
+        CipherHolder holder = cipherHolder.get();
+        Cipher cipher = holder.encryptCipher(currentKey());
+        try {
+            return cipher.doFinal(input, off, len);
+        } catch (GeneralSecurityException e) {
+            // cipher state is undefined after a failure. initialize it again on next call
+            holder.encryptKey = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Method to decrypt raw cipher bytes
+     * @param encrypted cipher bytes
+     * @return          plain bytes
+     */
+    public static byte[] decryptBytes(byte[] encrypted) throws Exception {
+        CipherHolder holder = cipherHolder.get();
+        Cipher dcipher = holder.decryptCipher(currentKey());
+        try {
+            return dcipher.doFinal(encrypted);
+        } catch (GeneralSecurityException e) {
+            holder.decryptKey = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Method to drop the cached key. Next encrypt / decrypt call will derive it again from the vimo key.
+     */
+    public static void invalidateKey() {
+        keyContext = null;
+    }
+
+    /**
+     * Method to get the derived AES key for the current vimo key.
+     * Key is derived only once per vimo key and shared between all the threads.
+     * @return  key context of the current vimo key
+     */
+    private static KeyContext currentKey() throws Exception {
+        String vimoKey = ViMoNetApplication.getApplication().getVimoKey();
+        KeyContext context = keyContext;
+        if (context == null || !context.vimoKey.equals(vimoKey)) {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            byte[] thedigest = md.digest(vimoKey.getBytes(DEFAULT_CODING));
+            context = new KeyContext(vimoKey, new SecretKeySpec(thedigest, "AES"));
+            keyContext = context;
+        }
+        return context;
+    }
+
+    private static class KeyContext {
+        private final String vimoKey;
+        private final SecretKeySpec key;
+
+        KeyContext(String vimoKey, SecretKeySpec key) {
+            this.vimoKey = vimoKey;
+            this.key = key;
         }
-        return result;
     }
 
-    private static String parseByte2HexStr(byte buf[]) {
-        StringBuffer sb = new StringBuffer();
-        for (int i = 0; i <buf.length; i++) {
-            String hex = Integer.toHexString(buf[i] & 0xFF);
-            if (hex.length() == 1) {
-                hex = '0' + hex;
+    /**
+     * Per thread cipher instances. A cipher is initialized again only when the key is changed,
+     * doFinal() leaves it ready for the next message.
+     */
+    private static class CipherHolder {
+        private Cipher encryptCipher;
+        private Cipher decryptCipher;
+        private KeyContext encryptKey;
+        private KeyContext decryptKey;
+
+        Cipher encryptCipher(KeyContext context) throws GeneralSecurityException {
+            if (encryptCipher == null) {
+                encryptCipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+            }
+            if (encryptKey != context) {
+                encryptCipher.init(Cipher.ENCRYPT_MODE, context.key);
+                encryptKey = context;
+            }
+            return encryptCipher;
+        }
+
+        Cipher decryptCipher(KeyContext context) throws GeneralSecurityException {
+            if (decryptCipher == null) {
+                decryptCipher = Cipher.getInstance("AES");
+            }
+            if (decryptKey != context) {
+                decryptCipher.init(Cipher.DECRYPT_MODE, context.key);
+                decryptKey = context;
             }
-            sb.append(hex);
+            return decryptCipher;
         }
-        return sb.toString();
     }
 }
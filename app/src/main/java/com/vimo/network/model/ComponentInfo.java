@@ -5,16 +5,27 @@ package com.vimo.network.model;
  */
 
 public class ComponentInfo {
+    private String componentName;
     private String componentIp;
     private String tokenTimeStamp;
     private String publicIp;
     private String domain;
     private boolean isTlsEnabled;
+    private boolean isBinarySupported;
+    private boolean isCompressionSupported;
     private int port;
     private int nport;
     private int sipPort;
     private int tlsPort;
 
+    public String getComponentName() {
+        return componentName;
+    }
+
+    public void setComponentName(String componentName) {
+        this.componentName = componentName;
+    }
+
     public String getComponentIp() {
         return componentIp;
     }
@@ -55,6 +66,22 @@ public class ComponentInfo {
         isTlsEnabled = tlsEnabled;
     }
 
+    public boolean isBinarySupported() {
+        return isBinarySupported;
+    }
+
+    public void setBinarySupported(boolean binarySupported) {
+        isBinarySupported = binarySupported;
+    }
+
+    public boolean isCompressionSupported() {
+        return isCompressionSupported;
+    }
+
+    public void setCompressionSupported(boolean compressionSupported) {
+        isCompressionSupported = compressionSupported;
+    }
+
     public int getPort() {
         return port;
     }
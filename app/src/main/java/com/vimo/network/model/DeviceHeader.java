@@ -0,0 +1,97 @@
+package com.vimo.network.model;
+
+import android.os.Build;
+
+import com.vimo.network.manager.DataManager;
+
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Device and app details sent with every request. Computed once per process and kept as an
+ * already serialized json fragment, so RequestParam only has to splice it into the request.
+ * A new header is built only when the system language changes. A header built before the app
+ * version could be read is used for one request only, so the version is never cached as missing.
+ */
+public final class DeviceHeader {
+    private static volatile DeviceHeader current = null;
+
+    private final String language;
+    private final boolean complete;
+    private final Map<String, Object> values;
+    private final String fragment;
+
+    /**
+     * Method to get the header for the current system language
+     * @return  device header
+     */
+    public static DeviceHeader getHeader() {
+        DeviceHeader header = current;
+        String language = DataManager.getSystemLanguage();
+        if (header == null || !header.language.equals(language)) {
+            header = new DeviceHeader(language);
+            if (header.complete) {
+                current = header;
+            }
+        }
+        return header;
+    }
+
+    private DeviceHeader(String language) {
+        this.language = language;
+        Map<String, Object> map = new LinkedHashMap<>();
+        String versionName = DataManager.getAppVersionNumber();
+        int buildNumber = DataManager.getBuildNumber();
+        this.complete = versionName != null && buildNumber != -1;
+        putValue(map, "versionNumber", versionName);
+        putValue(map, "appBuildNumber", buildNumber);
+        putValue(map, "deviceType", "Android");
+        putValue(map, "language", language);
+        putValue(map, "manufacturer", Build.MANUFACTURER);
+        putValue(map, "deviceModel", Build.MODEL);
+        putValue(map, "osVersion", Build.VERSION.SDK_INT);
+        putValue(map, "deviceId", DataManager.getDeviceId());
+        this.values = Collections.unmodifiableMap(map);
+        StringBuilder builder = new StringBuilder(256);
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(JSONObject.quote(entry.getKey())).append(':');
+            if (entry.getValue() instanceof String) {
+                builder.append(JSONObject.quote((String) entry.getValue()));
+            } else {
+                builder.append(entry.getValue());
+            }
+        }
+        this.fragment = builder.toString();
+    }
+
+    private static void putValue(Map<String, Object> map, String key, Object value) {
+        // null values are left out, same as JSONObject.put()
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+
+    /**
+     * Method to get the header values
+     * @return  unmodifiable map of the header values in request order
+     */
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Method to get the serialized header
+     * @return  json members without the surrounding braces
+     */
+    public String fragment() {
+        return fragment;
+    }
+}
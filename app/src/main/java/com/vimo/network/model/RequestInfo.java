@@ -1,6 +1,9 @@
 package com.vimo.network.model;
 
 import com.vimo.network.listener.ConnectionListener;
+import com.vimo.network.manager.RequestIdAllocator;
+
+import java.util.concurrent.Executor;
 
 /**
  * File created by vimo on 28/03/18.
@@ -10,20 +13,27 @@ public class RequestInfo {
     private String componentName;
     private String rpc;
     private int requestId;
+    private final int wireId;
     private int timeout;
     private RequestParam param;
     private ConnectionListener listener;
-    private boolean requested;
+    private volatile boolean requested;
     private boolean sip;
+    private boolean warmup;
+    private boolean idempotent;
+    private Executor callbackExecutor;
+    private final long createdAt;
 
     public RequestInfo(String componentName, String rpc, int requestId, int timeout, RequestParam param, ConnectionListener listener) {
         this.componentName = componentName;
         this.rpc = rpc;
         this.requestId = requestId;
+        this.wireId = RequestIdAllocator.nextWireId();
         this.timeout = timeout;
         this.param = param;
         this.listener = listener;
         this.requested = false;
+        this.createdAt = System.currentTimeMillis();
     }
 
     public String getComponentName() {
@@ -38,6 +48,14 @@ public class RequestInfo {
         return requestId;
     }
 
+    /**
+     * Id used on the socket and as key of the request tables. Unique for every request,
+     * while the request id is the one given by the app for its callbacks.
+     */
+    public int getWireId() {
+        return wireId;
+    }
+
     public int getTimeout() {
         return timeout;
     }
@@ -65,4 +83,59 @@ public class RequestInfo {
     public void setSip(boolean sip) {
         this.sip = sip;
     }
+
+    /**
+     * Warm up requests are placeholders created by NetworkManager.prewarm().
+     * They only open the component connection and are never sent to the server.
+     */
+    public boolean isWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(boolean warmup) {
+        this.warmup = warmup;
+    }
+
+    /**
+     * Idempotent requests can be sent again after the connection was restored,
+     * even if they were already sent on the lost connection.
+     */
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+    public void setIdempotent(boolean idempotent) {
+        this.idempotent = idempotent;
+    }
+
+    /**
+     * Executor to run the listener callbacks. null uses the default delivery of the network manager
+     */
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Method to check whether the timeout of the request is over
+     * @return  true if the caller does not wait for the answer anymore
+     */
+    public boolean isExpired() {
+        return timeout > 0 && System.currentTimeMillis() - createdAt >= timeout;
+    }
+
+    /**
+     * Method to get the time left until the timeout of the request. A request sent again
+     * after a reconnection only waits for the rest of its original timeout.
+     * @return  remaining time in milli seconds, or the timeout itself if it is not positive
+     */
+    public long getRemainingTime() {
+        if (timeout <= 0) {
+            return timeout;
+        }
+        return Math.max(0, timeout - (System.currentTimeMillis() - createdAt));
+    }
 }
@@ -1,15 +1,14 @@
 package com.vimo.network.model;
 
-import android.os.Build;
-
 import com.vimo.network.helper.Logger;
-import com.vimo.network.manager.DataManager;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * File created by vimo on 28/03/18.
@@ -18,21 +17,20 @@ import java.util.List;
 public class RequestParam {
 
     private JSONObject object;
+    /** true once getObject() has put the header values into the param object */
+    private boolean headerMerged = false;
 
     public static RequestParam myRequest() {
         return new RequestParam();
     }
 
+    /**
+     * Device details (version, language, device id...) are not stored in the param object.
+     * They are added from the precomputed DeviceHeader when the request is serialized,
+     * or when the caller asks for the whole object with getObject().
+     */
     public RequestParam() {
         object = new JSONObject();
-        addParam("versionNumber", DataManager.getAppVersionNumber());
-        addParam("appBuildNumber", DataManager.getBuildNumber());
-        addParam("deviceType", "Android");
-        addParam("language", DataManager.getSystemLanguage());
-        addParam("manufacturer", Build.MANUFACTURER);
-        addParam("deviceModel", Build.MODEL);
-        addParam("osVersion", Build.VERSION.SDK_INT);
-        addParam("deviceId", DataManager.getDeviceId());
     }
 
     public void addParam(String key, JSONArray value) {
@@ -133,7 +131,15 @@ public class RequestParam {
         }
     }
 
+    /**
+     * Method to get the request object, with the device header values like before
+     * @return  request object. Changes to it are sent with the request
+     */
     public JSONObject getObject() {
+        if (!headerMerged) {
+            object = mergedObject(DeviceHeader.getHeader());
+            headerMerged = true;
+        }
         return object;
     }
 
@@ -142,6 +148,56 @@ public class RequestParam {
 //    }
 
     public String json() {
-        return object.toString();
+        if (headerMerged) {
+            return object.toString();
+        }
+        DeviceHeader header = DeviceHeader.getHeader();
+        if (overridesHeader(header)) {
+            return mergedObject(header).toString();
+        }
+        String body = object.toString();
+        if (object.length() == 0) {
+            return "{" + header.fragment() + "}";
+        }
+        // splice the header in front of the params :: {header,params}
+        return new StringBuilder(header.fragment().length() + body.length() + 2)
+                .append('{')
+                .append(header.fragment())
+                .append(',')
+                .append(body, 1, body.length())
+                .toString();
+    }
+
+    private boolean overridesHeader(DeviceHeader header) {
+        for (String key : header.getValues().keySet()) {
+            if (object.has(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to build the request object when the caller has replaced some of the header values
+     * @param header current device header
+     * @return       header values merged with the params. Params win over the header
+     */
+    private JSONObject mergedObject(DeviceHeader header) {
+        JSONObject merged = new JSONObject();
+        try {
+            for (Map.Entry<String, Object> entry : header.getValues().entrySet()) {
+                if (!object.has(entry.getKey())) {
+                    merged.put(entry.getKey(), entry.getValue());
+                }
+            }
+            Iterator<String> keys = object.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                merged.put(key, object.get(key));
+            }
+        } catch (JSONException e) {
+            Logger.error(e);
+        }
+        return merged;
     }
 }
@@ -0,0 +1,456 @@
+package com.vimo.network.model;
+
+import com.vimo.network.helper.Logger;
+import com.vimo.network.listener.NetworkCodes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Result of an rpc sent with NetworkManager.sendAsync(). Callbacks can be added at any time and
+ * run on the executor given to them, else on the default executor of the future. Futures of
+ * several requests can be combined with all() and any(), or chained with map() and flatMap().
+ *
+ * @param <T>   type of the result
+ */
+public class RpcFuture<T> implements Future<T> {
+    private static final int PENDING = 0;
+    private static final int SUCCESS = 1;
+    private static final int FAILURE = 2;
+    private static final int CANCELLED = 3;
+    private static final String CANCELLED_MESSAGE = "Request cancelled";
+
+    private final Executor defaultExecutor;
+    private final List<CallbackEntry<? super T>> callbacks = new ArrayList<>();
+    private int state = PENDING;
+    private T value = null;
+    private String error = null;
+    private int errorCode = 0;
+    private Runnable cancelHook = null;
+
+    public RpcFuture() {
+        this(null);
+    }
+
+    /**
+     * @param defaultExecutor   executor of the callbacks added without one. null runs them on the completing thread
+     */
+    public RpcFuture(Executor defaultExecutor) {
+        this.defaultExecutor = defaultExecutor;
+    }
+
+    /**
+     * Method to complete the future with a result
+     * @param value result
+     * @return      false if the future is already done
+     */
+    public boolean complete(T value) {
+        return finish(SUCCESS, value, null, NetworkCodes.EC_SUCCESS_CODE);
+    }
+
+    /**
+     * Method to complete the future with an error
+     * @param error     error message
+     * @param errorCode error code, one of NetworkCodes or the status of the server
+     * @return          false if the future is already done
+     */
+    public boolean fail(String error, int errorCode) {
+        return finish(FAILURE, null, error, errorCode);
+    }
+
+    /**
+     * Method to set the work done when the future is cancelled, for example dropping the request.
+     * Runs right away if the future is already cancelled.
+     * @param cancelHook    runnable to call on cancellation
+     */
+    public void setCancelHook(Runnable cancelHook) {
+        synchronized (this) {
+            if (state == PENDING) {
+                this.cancelHook = cancelHook;
+                return;
+            }
+            if (state != CANCELLED) {
+                return;
+            }
+        }
+        cancelHook.run();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return finish(CANCELLED, null, CANCELLED_MESSAGE, NetworkCodes.EC_REQUEST_CANCELLED);
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return state != PENDING;
+    }
+
+    public synchronized boolean isSuccess() {
+        return state == SUCCESS;
+    }
+
+    @Override
+    public synchronized T get() throws InterruptedException, ExecutionException {
+        while (state == PENDING) {
+            wait();
+        }
+        return result();
+    }
+
+    @Override
+    public synchronized T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (state == PENDING) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return result();
+    }
+
+    /**
+     * Method to add a callback run on the default executor
+     * @param callback  callback to get the result
+     */
+    public void addCallback(Callback<? super T> callback) {
+        addCallback(callback, defaultExecutor);
+    }
+
+    /**
+     * Method to add a callback
+     * @param callback  callback to get the result
+     * @param executor  executor of the callback. null runs it on the completing thread
+     */
+    public void addCallback(Callback<? super T> callback, Executor executor) {
+        CallbackEntry<? super T> entry = new CallbackEntry<>(callback, executor);
+        synchronized (this) {
+            if (state == PENDING) {
+                callbacks.add(entry);
+                return;
+            }
+        }
+        notifyCallback(entry);
+    }
+
+    /**
+     * Method to get a future with the result converted by the transform. Cancelling it cancels this future.
+     * @param transform converts the result. An exception fails the new future with EC_APP_ERROR
+     * @param <R>       type of the converted result
+     * @return          future of the converted result
+     */
+    public <R> RpcFuture<R> map(final Transform<? super T, ? extends R> transform) {
+        final RpcFuture<R> mapped = new RpcFuture<>(defaultExecutor);
+        mapped.setCancelHook(cancelRunnable(this));
+        addCallback(new Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                try {
+                    mapped.complete(transform.apply(value));
+                } catch (Exception e) {
+                    Logger.error("RpcFuture :: Exception in map :: " + e.getMessage());
+                    mapped.fail(e.getMessage(), NetworkCodes.EC_APP_ERROR);
+                }
+            }
+
+            @Override
+            public void onFailure(String error, int errorCode) {
+                mapped.fail(error, errorCode);
+            }
+        }, null);
+        return mapped;
+    }
+
+    /**
+     * Method to start the next request with the result of this one
+     * @param chain starts the next request
+     * @param <R>   type of the result of the next request
+     * @return      future of the next request. Cancelling it cancels the running step
+     */
+    public <R> RpcFuture<R> flatMap(final Chain<? super T, R> chain) {
+        final RpcFuture<R> chained = new RpcFuture<>(defaultExecutor);
+        chained.setCancelHook(cancelRunnable(this));
+        addCallback(new Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                RpcFuture<R> next;
+                try {
+                    next = chain.apply(value);
+                } catch (Exception e) {
+                    Logger.error("RpcFuture :: Exception in flatMap :: " + e.getMessage());
+                    chained.fail(e.getMessage(), NetworkCodes.EC_APP_ERROR);
+                    return;
+                }
+                if (next == null) {
+                    chained.complete(null);
+                    return;
+                }
+                forward(next, chained);
+                chained.setCancelHook(cancelRunnable(next));
+            }
+
+            @Override
+            public void onFailure(String error, int errorCode) {
+                chained.fail(error, errorCode);
+            }
+        }, null);
+        return chained;
+    }
+
+    /**
+     * Method to wait for all the requests. Fails with the first failure and cancels the others.
+     * Cancelling the result cancels all the requests.
+     * @param futures   futures of the requests
+     * @param <T>       type of the results
+     * @return          future of the results, in the order of the futures
+     */
+    public static <T> RpcFuture<List<T>> all(final List<RpcFuture<T>> futures) {
+        final RpcFuture<List<T>> combined = new RpcFuture<>();
+        combined.setCancelHook(cancelAllRunnable(futures));
+        if (futures.isEmpty()) {
+            combined.complete(Collections.<T>emptyList());
+            return combined;
+        }
+        final Object[] results = new Object[futures.size()];
+        final int[] remaining = {futures.size()};
+        for (int index = 0; index < futures.size(); index++) {
+            final int position = index;
+            futures.get(index).addCallback(new Callback<T>() {
+                @Override
+                public void onSuccess(T value) {
+                    synchronized (results) {
+                        results[position] = value;
+                        if (--remaining[0] > 0) {
+                            return;
+                        }
+                    }
+                    List<T> list = new ArrayList<>(results.length);
+                    for (Object result : results) {
+                        @SuppressWarnings("unchecked")
+                        T item = (T) result;
+                        list.add(item);
+                    }
+                    combined.complete(list);
+                }
+
+                @Override
+                public void onFailure(String error, int errorCode) {
+                    if (combined.fail(error, errorCode)) {
+                        cancelAllRunnable(futures).run();
+                    }
+                }
+            }, null);
+        }
+        return combined;
+    }
+
+    /**
+     * Method to take the first successful request and cancel the others.
+     * Fails with the last error if every request fails.
+     * @param futures   futures of the requests
+     * @param <T>       type of the results
+     * @return          future of the first result
+     */
+    public static <T> RpcFuture<T> any(final List<RpcFuture<T>> futures) {
+        final RpcFuture<T> first = new RpcFuture<>();
+        first.setCancelHook(cancelAllRunnable(futures));
+        if (futures.isEmpty()) {
+            first.fail("No request to wait for", NetworkCodes.EC_APP_ERROR);
+            return first;
+        }
+        final int[] remaining = {futures.size()};
+        for (RpcFuture<T> future : futures) {
+            future.addCallback(new Callback<T>() {
+                @Override
+                public void onSuccess(T value) {
+                    if (first.complete(value)) {
+                        cancelAllRunnable(futures).run();
+                    }
+                }
+
+                @Override
+                public void onFailure(String error, int errorCode) {
+                    synchronized (remaining) {
+                        if (--remaining[0] > 0) {
+                            return;
+                        }
+                    }
+                    first.fail(error, errorCode);
+                }
+            }, null);
+        }
+        return first;
+    }
+
+    private static <R> void forward(RpcFuture<R> source, final RpcFuture<R> target) {
+        source.addCallback(new Callback<R>() {
+            @Override
+            public void onSuccess(R value) {
+                target.complete(value);
+            }
+
+            @Override
+            public void onFailure(String error, int errorCode) {
+                target.fail(error, errorCode);
+            }
+        }, null);
+    }
+
+    private static Runnable cancelRunnable(final Future<?> future) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                future.cancel(false);
+            }
+        };
+    }
+
+    private static <T> Runnable cancelAllRunnable(final List<RpcFuture<T>> futures) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                for (RpcFuture<T> future : futures) {
+                    future.cancel(false);
+                }
+            }
+        };
+    }
+
+    private boolean finish(int state, T value, String error, int errorCode) {
+        List<CallbackEntry<? super T>> pending;
+        Runnable hook;
+        synchronized (this) {
+            if (this.state != PENDING) {
+                return false;
+            }
+            this.state = state;
+            this.value = value;
+            this.error = error;
+            this.errorCode = errorCode;
+            hook = cancelHook;
+            this.cancelHook = null;
+            pending = new ArrayList<>(callbacks);
+            callbacks.clear();
+            notifyAll();
+        }
+        if (state == CANCELLED && hook != null) {
+            hook.run();
+        }
+        for (CallbackEntry<? super T> entry : pending) {
+            notifyCallback(entry);
+        }
+        return true;
+    }
+
+    private T result() throws ExecutionException {
+        if (state == CANCELLED) {
+            throw new CancellationException(error);
+        }
+        if (state == FAILURE) {
+            throw new ExecutionException(error, new RpcException(error, errorCode));
+        }
+        return value;
+    }
+
+    private <V> void notifyCallback(final CallbackEntry<V> entry) {
+        final boolean success;
+        final T result;
+        final String message;
+        final int code;
+        synchronized (this) {
+            success = state == SUCCESS;
+            result = value;
+            message = error;
+            code = errorCode;
+        }
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                if (success) {
+                    @SuppressWarnings("unchecked")
+                    V item = (V) result;
+                    entry.callback.onSuccess(item);
+                } else {
+                    entry.callback.onFailure(message, code);
+                }
+            }
+        };
+        if (entry.executor == null) {
+            runnable.run();
+            return;
+        }
+        try {
+            entry.executor.execute(runnable);
+        } catch (RejectedExecutionException e) {
+            Logger.error("RpcFuture :: Executor rejected the callback. Running it on the current thread :: " + e.getMessage());
+            runnable.run();
+        }
+    }
+
+    private static class CallbackEntry<V> {
+        private final Callback<V> callback;
+        private final Executor executor;
+
+        CallbackEntry(Callback<V> callback, Executor executor) {
+            this.callback = callback;
+            this.executor = executor;
+        }
+    }
+
+    /**
+     * Callback of the result. Same meaning as ConnectionListener, without the request id
+     */
+    public interface Callback<T> {
+        void onSuccess(T value);
+
+        void onFailure(String error, int errorCode);
+    }
+
+    /**
+     * Converts the result of a future
+     */
+    public interface Transform<T, R> {
+        R apply(T value) throws Exception;
+    }
+
+    /**
+     * Starts the next request with the result of a future
+     */
+    public interface Chain<T, R> {
+        RpcFuture<R> apply(T value) throws Exception;
+    }
+
+    /**
+     * Cause of the ExecutionException thrown by get() for a failed request
+     */
+    public static class RpcException extends Exception {
+        private static final long serialVersionUID = 1L;
+        private final int errorCode;
+
+        public RpcException(String message, int errorCode) {
+            super(message);
+            this.errorCode = errorCode;
+        }
+
+        public int getErrorCode() {
+            return errorCode;
+        }
+    }
+}
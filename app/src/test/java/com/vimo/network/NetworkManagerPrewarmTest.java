@@ -0,0 +1,102 @@
+package com.vimo.network;
+
+import com.vimo.network.listener.NetworkCodes;
+import com.vimo.network.listener.PrewarmListener;
+import com.vimo.network.manager.ComponentCache;
+import com.vimo.network.manager.ConnectivityMonitor;
+import com.vimo.network.manager.LookupBackoff;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ */
+public class NetworkManagerPrewarmTest {
+    private static final String COMPONENT = "prewarm-test";
+    private static final int SERVER_ERROR = 500;
+
+    @Before
+    public void setUp() throws Exception {
+        // no current activity, so the app is in background
+        setField(ViMoNetApplication.class, null, "myApplication", new ViMoNetApplication());
+        setField(ConnectivityMonitor.class, ConnectivityMonitor.getManager(), "snapshot", connectedSnapshot());
+        // the lookup waits in the batch, so no directory service connection is opened
+        NetworkManager.getManager().setBatchLookupWindow(60 * 1000);
+        ComponentCache.getManager().clear();
+        LookupBackoff.getManager().clear();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        NetworkManager.getManager().setBatchLookupWindow(0);
+        setField(ConnectivityMonitor.class, ConnectivityMonitor.getManager(), "snapshot", null);
+        LookupBackoff.getManager().clear();
+    }
+
+    @Test
+    public void failedWarmupLookupReachesTheListenerInBackground() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        NetworkManager.getManager().prewarm(Collections.singletonList(COMPONENT), listener);
+        Integer lookupId = runningLookups().get(COMPONENT);
+        assertNotNull(lookupId);
+
+        NetworkManager.getManager().onFailure("Component not found", SERVER_ERROR, lookupId);
+
+        assertEquals(Collections.singletonList(COMPONENT), listener.failedComponents);
+        assertEquals(SERVER_ERROR, listener.errorCode);
+        assertEquals(Collections.singletonList(COMPONENT), listener.finishedFailed);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Integer> runningLookups() throws Exception {
+        Field field = NetworkManager.class.getDeclaredField("componentLookups");
+        field.setAccessible(true);
+        return (Map<String, Integer>) field.get(NetworkManager.getManager());
+    }
+
+    private static Object connectedSnapshot() throws Exception {
+        Class<?> snapshotClass = Class.forName(ConnectivityMonitor.class.getName() + "$Snapshot");
+        Constructor<?> constructor = snapshotClass.getDeclaredConstructor(boolean.class, boolean.class, Object.class);
+        constructor.setAccessible(true);
+        return constructor.newInstance(true, false, null);
+    }
+
+    private static void setField(Class<?> owner, Object target, String name, Object value) throws Exception {
+        Field field = owner.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static class RecordingListener implements PrewarmListener {
+        private final List<String> failedComponents = new ArrayList<>();
+        private List<String> finishedFailed = null;
+        private int errorCode = NetworkCodes.EC_SUCCESS_CODE;
+
+        @Override
+        public void onComponentReady(String componentName) {
+        }
+
+        @Override
+        public void onComponentFailed(String componentName, String error, int errorCode) {
+            failedComponents.add(componentName);
+            this.errorCode = errorCode;
+        }
+
+        @Override
+        public void onPrewarmFinished(List<String> readyComponents, List<String> failedComponents) {
+            finishedFailed = failedComponents;
+        }
+    }
+}
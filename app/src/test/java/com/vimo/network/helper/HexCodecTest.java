@@ -0,0 +1,77 @@
+package com.vimo.network.helper;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ */
+public class HexCodecTest {
+
+    @Test
+    public void encodesLowerCaseHex() {
+        assertEquals("00017f80ff", HexCodec.encode(new byte[]{0, 1, 127, (byte) 128, (byte) 255}));
+        assertEquals("", HexCodec.encode(new byte[0]));
+    }
+
+    @Test
+    public void roundTripsEveryByteValue() {
+        byte[] bytes = new byte[256];
+        for (int index = 0; index < bytes.length; index++) {
+            bytes[index] = (byte) index;
+        }
+        assertArrayEquals(bytes, HexCodec.decode(HexCodec.encode(bytes)));
+    }
+
+    @Test
+    public void decodesUpperCaseHex() {
+        assertArrayEquals(new byte[]{(byte) 0xAB, (byte) 0xCD, (byte) 0xEF}, HexCodec.decode("ABcdEf"));
+    }
+
+    @Test
+    public void encodesIntoCallerBufferAtOffset() {
+        char[] dst = "xx------".toCharArray();
+        int written = HexCodec.encode(new byte[]{9, 10, 11}, 1, 2, dst, 2);
+        assertEquals(4, written);
+        assertEquals("xx0a0b--", new String(dst));
+    }
+
+    @Test
+    public void roundTripsStreamsLongerThanTheBuffer() throws Exception {
+        byte[] bytes = new byte[10000];
+        new Random(3).nextBytes(bytes);
+        StringWriter hex = new StringWriter();
+        assertEquals(bytes.length, HexCodec.encode(new ByteArrayInputStream(bytes), hex));
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        assertEquals(bytes.length, HexCodec.decode(new StringReader(hex.toString()), decoded));
+        assertArrayEquals(bytes, decoded.toByteArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOddLength() {
+        HexCodec.decode("abc");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonHexCharacter() {
+        HexCodec.decode("0g");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonAsciiCharacter() {
+        HexCodec.decode("0\u00e9");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOddLengthStream() throws Exception {
+        HexCodec.decode(new StringReader("abc"), new ByteArrayOutputStream());
+    }
+}
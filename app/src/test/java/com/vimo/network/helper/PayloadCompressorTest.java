@@ -0,0 +1,103 @@
+package com.vimo.network.helper;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ */
+public class PayloadCompressorTest {
+
+    @After
+    public void tearDown() {
+        PayloadCompressor.setMaxInflatedSize(PayloadCompressor.DEFAULT_MAX_INFLATED_SIZE);
+        PayloadCompressor.releaseAll();
+    }
+
+    @Test
+    public void roundTripsCompressiblePayload() throws Exception {
+        byte[] payload = repeated("{\"key\":\"value\",\"list\":[1,2,3]}", 200);
+        byte[] compressed = PayloadCompressor.deflate(payload, 0, payload.length);
+        assertNotNull(compressed);
+        assertTrue(compressed.length < payload.length);
+        assertArrayEquals(payload, PayloadCompressor.inflate(compressed));
+    }
+
+    @Test
+    public void compressesOnlyTheGivenRange() throws Exception {
+        byte[] payload = repeated("abcdefgh", 500);
+        byte[] compressed = PayloadCompressor.deflate(payload, 8, 2000);
+        assertArrayEquals(Arrays.copyOfRange(payload, 8, 2008), PayloadCompressor.inflate(compressed));
+    }
+
+    @Test
+    public void returnsNullWhenCompressionDoesNotHelp() {
+        byte[] payload = new byte[4096];
+        new Random(5).nextBytes(payload);
+        assertNull(PayloadCompressor.deflate(payload, 0, payload.length));
+    }
+
+    @Test
+    public void growsBeyondTheRetainedBuffer() throws Exception {
+        // far more than the retained scratch buffer and more than 4 times the compressed size
+        byte[] payload = repeated("0123456789", 100000);
+        byte[] compressed = PayloadCompressor.deflate(payload, 0, payload.length);
+        assertArrayEquals(payload, PayloadCompressor.inflate(compressed));
+        // the pooled compressor still works after a big payload
+        byte[] small = repeated("small", 100);
+        assertArrayEquals(small, PayloadCompressor.inflate(PayloadCompressor.deflate(small, 0, small.length)));
+    }
+
+    @Test(expected = DataFormatException.class)
+    public void rejectsPayloadBiggerThanTheMaxInflatedSize() throws Exception {
+        byte[] payload = new byte[64 * 1024];
+        byte[] compressed = PayloadCompressor.deflate(payload, 0, payload.length);
+        PayloadCompressor.setMaxInflatedSize(16 * 1024);
+        PayloadCompressor.inflate(compressed);
+    }
+
+    @Test
+    public void acceptsPayloadOfExactlyTheMaxInflatedSize() throws Exception {
+        byte[] payload = new byte[16 * 1024];
+        byte[] compressed = PayloadCompressor.deflate(payload, 0, payload.length);
+        PayloadCompressor.setMaxInflatedSize(16 * 1024);
+        assertArrayEquals(payload, PayloadCompressor.inflate(compressed));
+    }
+
+    @Test(expected = DataFormatException.class)
+    public void rejectsTruncatedPayload() throws Exception {
+        byte[] payload = repeated("truncated", 500);
+        byte[] compressed = PayloadCompressor.deflate(payload, 0, payload.length);
+        PayloadCompressor.inflate(Arrays.copyOf(compressed, compressed.length / 2));
+    }
+
+    @Test(expected = DataFormatException.class)
+    public void rejectsGarbage() throws Exception {
+        PayloadCompressor.inflate(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+    }
+
+    @Test
+    public void worksAfterReleasingThePool() throws Exception {
+        byte[] payload = repeated("released", 300);
+        PayloadCompressor.deflate(payload, 0, payload.length);
+        PayloadCompressor.releaseAll();
+        assertArrayEquals(payload, PayloadCompressor.inflate(PayloadCompressor.deflate(payload, 0, payload.length)));
+    }
+
+    private static byte[] repeated(String text, int count) {
+        StringBuilder builder = new StringBuilder(text.length() * count);
+        for (int index = 0; index < count; index++) {
+            builder.append(text);
+        }
+        return builder.toString().getBytes();
+    }
+}
@@ -0,0 +1,115 @@
+package com.vimo.network.manager;
+
+import com.vimo.network.model.ComponentInfo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ */
+public class ComponentCacheTest {
+    private final ComponentCache cache = ComponentCache.getManager();
+
+    @Before
+    public void setUp() {
+        cache.setPersistent(null);
+        cache.setEnabled(true);
+        cache.setTtl(ComponentCache.DEFAULT_TTL);
+        cache.clear();
+    }
+
+    @After
+    public void tearDown() {
+        cache.setTtl(ComponentCache.DEFAULT_TTL);
+        cache.clear();
+    }
+
+    @Test
+    public void returnsCachedInfoWithinTtl() {
+        ComponentInfo info = info("chat", null);
+        cache.put("chat", false, info);
+        assertSame(info, cache.get("chat", false));
+    }
+
+    @Test
+    public void expiresAfterTtl() throws Exception {
+        cache.setTtl(50);
+        cache.put("chat", false, info("chat", null));
+        Thread.sleep(100);
+        assertNull(cache.get("chat", false));
+    }
+
+    @Test
+    public void countsTtlFromTokenTimeStampInSeconds() {
+        long elevenMinutesAgo = (System.currentTimeMillis() - 11 * 60 * 1000) / 1000;
+        cache.put("chat", false, info("chat", String.valueOf(elevenMinutesAgo)));
+        assertNull(cache.get("chat", false));
+    }
+
+    @Test
+    public void countsTtlFromTokenTimeStampInMilliSeconds() {
+        long fiveMinutesAgo = System.currentTimeMillis() - 5 * 60 * 1000;
+        cache.put("chat", false, info("chat", String.valueOf(fiveMinutesAgo)));
+        assertNotNull(cache.get("chat", false));
+        long elevenMinutesAgo = System.currentTimeMillis() - 11 * 60 * 1000;
+        cache.put("chat", false, info("chat", String.valueOf(elevenMinutesAgo)));
+        assertNull(cache.get("chat", false));
+    }
+
+    @Test
+    public void tokenTimeStampInTheFutureDoesNotExtendTtl() throws Exception {
+        cache.setTtl(50);
+        long tomorrow = System.currentTimeMillis() + 24 * 60 * 60 * 1000;
+        cache.put("chat", false, info("chat", String.valueOf(tomorrow)));
+        Thread.sleep(100);
+        assertNull(cache.get("chat", false));
+    }
+
+    @Test
+    public void unknownTokenTimeStampCountsFromNow() {
+        cache.put("chat", false, info("chat", "yesterday"));
+        assertNotNull(cache.get("chat", false));
+    }
+
+    @Test
+    public void keepsDevLookupApart() {
+        ComponentInfo live = info("chat", null);
+        ComponentInfo dev = info("chat", null);
+        cache.put("chat", false, live);
+        cache.put("chat", true, dev);
+        assertSame(live, cache.get("chat", false));
+        assertSame(dev, cache.get("chat", true));
+    }
+
+    @Test
+    public void invalidateRemovesBothVersions() {
+        cache.put("chat", false, info("chat", null));
+        cache.put("chat", true, info("chat", null));
+        cache.invalidate("chat");
+        assertNull(cache.get("chat", false));
+        assertNull(cache.get("chat", true));
+    }
+
+    @Test
+    public void disabledCacheKeepsNothing() {
+        cache.put("chat", false, info("chat", null));
+        cache.setEnabled(false);
+        assertNull(cache.get("chat", false));
+        cache.put("chat", false, info("chat", null));
+        cache.setEnabled(true);
+        assertNull(cache.get("chat", false));
+    }
+
+    private static ComponentInfo info(String componentName, String tokenTimeStamp) {
+        ComponentInfo info = new ComponentInfo();
+        info.setComponentName(componentName);
+        info.setTokenTimeStamp(tokenTimeStamp);
+        return info;
+    }
+}
@@ -0,0 +1,104 @@
+package com.vimo.network.manager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ */
+public class LookupBackoffTest {
+    private static final int ERROR_CODE = -5001;
+    private final LookupBackoff backoff = LookupBackoff.getManager();
+
+    @Before
+    public void setUp() {
+        backoff.setEnabled(true);
+        backoff.setBackoff(LookupBackoff.DEFAULT_BASE_BACKOFF, LookupBackoff.DEFAULT_MAX_BACKOFF);
+        backoff.clear();
+    }
+
+    @After
+    public void tearDown() {
+        backoff.setBackoff(LookupBackoff.DEFAULT_BASE_BACKOFF, LookupBackoff.DEFAULT_MAX_BACKOFF);
+        backoff.clear();
+    }
+
+    @Test
+    public void noFailureLetsTheLookupThrough() {
+        assertNull(backoff.get("chat", false));
+    }
+
+    @Test
+    public void failureBlocksWithTheCachedError() {
+        backoff.reportFailure("chat", false, "Component not found", ERROR_CODE);
+        LookupBackoff.Failure failure = backoff.get("chat", false);
+        assertNotNull(failure);
+        assertEquals("Component not found", failure.getError());
+        assertEquals(ERROR_CODE, failure.getErrorCode());
+        long remaining = failure.getRemainingTime();
+        assertTrue(remaining > 0 && remaining <= LookupBackoff.DEFAULT_BASE_BACKOFF);
+    }
+
+    @Test
+    public void backoffDoublesUpToTheMax() {
+        backoff.setBackoff(1000, 3000);
+        backoff.reportFailure("chat", false, "error", ERROR_CODE);
+        assertTrue(backoff.get("chat", false).getRemainingTime() <= 1000);
+        backoff.reportFailure("chat", false, "error", ERROR_CODE);
+        assertTrue(backoff.get("chat", false).getRemainingTime() > 1000);
+        backoff.reportFailure("chat", false, "error", ERROR_CODE);
+        backoff.reportFailure("chat", false, "error", ERROR_CODE);
+        long remaining = backoff.get("chat", false).getRemainingTime();
+        assertTrue(remaining > 2000 && remaining <= 3000);
+    }
+
+    @Test
+    public void lookupIsAllowedAgainAfterTheBackoff() throws Exception {
+        backoff.setBackoff(50, 50);
+        backoff.reportFailure("chat", false, "error", ERROR_CODE);
+        assertNotNull(backoff.get("chat", false));
+        Thread.sleep(100);
+        assertNull(backoff.get("chat", false));
+    }
+
+    @Test
+    public void failureCountSurvivesTheEndOfTheBackoff() throws Exception {
+        backoff.setBackoff(50, 10000);
+        backoff.reportFailure("chat", false, "error", ERROR_CODE);
+        Thread.sleep(100);
+        assertNull(backoff.get("chat", false));
+        // second failure in a row doubles the first back off
+        backoff.reportFailure("chat", false, "error", ERROR_CODE);
+        assertTrue(backoff.get("chat", false).getRemainingTime() > 50);
+    }
+
+    @Test
+    public void successForgetsTheFailures() {
+        backoff.reportFailure("chat", false, "error", ERROR_CODE);
+        backoff.reportSuccess("chat", false);
+        assertNull(backoff.get("chat", false));
+    }
+
+    @Test
+    public void devComponentIsBlockedSeparately() {
+        backoff.reportFailure("chat", true, "error", ERROR_CODE);
+        assertNull(backoff.get("chat", false));
+        assertNotNull(backoff.get("chat", true));
+    }
+
+    @Test
+    public void disabledBackoffBlocksNothing() {
+        backoff.reportFailure("chat", false, "error", ERROR_CODE);
+        backoff.setEnabled(false);
+        assertNull(backoff.get("chat", false));
+        backoff.reportFailure("chat", false, "error", ERROR_CODE);
+        backoff.setEnabled(true);
+        assertNull(backoff.get("chat", false));
+    }
+}
@@ -0,0 +1,32 @@
+package com.vimo.network.manager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ */
+public class RequestIdAllocatorTest {
+
+    @Test
+    public void generatedRequestIdsStayBelowTheWireIds() {
+        int requestId = RequestIdAllocator.nextRequestId();
+        int wireId = RequestIdAllocator.nextWireId();
+        assertTrue(requestId >= RequestIdAllocator.FIRST_GENERATED_REQUEST_ID);
+        assertTrue(requestId < wireId);
+    }
+
+    @Test
+    public void generatedRequestIdsAreUnique() {
+        int first = RequestIdAllocator.nextRequestId();
+        int second = RequestIdAllocator.nextRequestId();
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void lookupIdsAreNegative() {
+        assertTrue(RequestIdAllocator.nextLookupId() < 0);
+    }
+}
@@ -0,0 +1,72 @@
+package com.vimo.network.manager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ */
+public class RequestIdSetTest {
+
+    @Test
+    public void containsSmallIds() {
+        RequestIdSet set = new RequestIdSet(Arrays.asList(0, 7, 65535));
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(7));
+        assertTrue(set.contains(65535));
+        assertFalse(set.contains(1));
+        assertFalse(set.contains(8));
+    }
+
+    @Test
+    public void containsIdsOutsideTheBitSet() {
+        RequestIdSet set = new RequestIdSet(Arrays.asList(-1, 65536, Integer.MAX_VALUE, Integer.MIN_VALUE));
+        assertTrue(set.contains(-1));
+        assertTrue(set.contains(65536));
+        assertTrue(set.contains(Integer.MAX_VALUE));
+        assertTrue(set.contains(Integer.MIN_VALUE));
+        assertFalse(set.contains(-2));
+        assertFalse(set.contains(65537));
+        assertFalse(set.contains(0));
+    }
+
+    @Test
+    public void mixesBothRanges() {
+        RequestIdSet set = new RequestIdSet(Arrays.asList(3, 100000));
+        assertTrue(set.contains(3));
+        assertTrue(set.contains(100000));
+        // same low bits as the big id, but not in the set
+        assertFalse(set.contains(100000 & 0xFFFF));
+    }
+
+    @Test
+    public void nullListIsEmpty() {
+        RequestIdSet set = new RequestIdSet(null);
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(-1));
+        assertFalse(set.contains(70000));
+    }
+
+    @Test
+    public void skipsNullIds() {
+        RequestIdSet set = new RequestIdSet(Arrays.asList(5, null, 70000));
+        assertTrue(set.contains(5));
+        assertTrue(set.contains(70000));
+    }
+
+    @Test
+    public void isNotChangedByTheSourceList() {
+        List<Integer> ids = new ArrayList<>(Collections.singletonList(9));
+        RequestIdSet set = new RequestIdSet(ids);
+        ids.add(10);
+        assertTrue(set.contains(9));
+        assertFalse(set.contains(10));
+    }
+}
@@ -0,0 +1,252 @@
+package com.vimo.network.manager;
+
+import com.vimo.network.listener.ServerEventListener;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ */
+public class SubscriptionTest {
+    private final QueueExecutor executor = new QueueExecutor();
+    private final RecordingListener listener = new RecordingListener();
+
+    @Test
+    public void deliversEventsInOrder() {
+        Subscription subscription = subscription(4, Subscription.OVERFLOW_DROP_OLDEST);
+        subscription.offer("a", "1");
+        subscription.offer("b", "2");
+        executor.runAll();
+        assertEquals(Arrays.asList("1", "2"), listener.payloads);
+    }
+
+    @Test
+    public void schedulesOneDrainForManyEvents() {
+        Subscription subscription = subscription(4, Subscription.OVERFLOW_DROP_OLDEST);
+        subscription.offer("a", "1");
+        subscription.offer("b", "2");
+        subscription.offer("c", "3");
+        assertEquals(1, executor.tasks.size());
+    }
+
+    @Test
+    public void dropOldestKeepsTheNewestEvents() {
+        Subscription subscription = subscription(2, Subscription.OVERFLOW_DROP_OLDEST);
+        subscription.offer("a", "1");
+        subscription.offer("b", "2");
+        subscription.offer("c", "3");
+        executor.runAll();
+        assertEquals(Arrays.asList("2", "3"), listener.payloads);
+        assertEquals(1, subscription.getDroppedEvents());
+    }
+
+    @Test
+    public void coalesceReplacesTheBufferedEventOfTheSameKey() {
+        Subscription subscription = subscription(2, Subscription.OVERFLOW_COALESCE);
+        subscription.offer("price", "1");
+        subscription.offer("volume", "10");
+        subscription.offer("price", "2");
+        subscription.offer("price", "3");
+        executor.runAll();
+        assertEquals(Arrays.asList("3", "10"), listener.payloads);
+        assertEquals(0, subscription.getDroppedEvents());
+    }
+
+    @Test
+    public void coalesceDropsTheOldestForANewKey() {
+        Subscription subscription = subscription(2, Subscription.OVERFLOW_COALESCE);
+        subscription.offer("price", "1");
+        subscription.offer("volume", "10");
+        subscription.offer("trade", "x");
+        executor.runAll();
+        assertEquals(Arrays.asList("10", "x"), listener.payloads);
+        assertEquals(1, subscription.getDroppedEvents());
+    }
+
+    @Test
+    public void oneDrainDeliversAtMostABufferFull() {
+        final Subscription subscription = subscription(2, Subscription.OVERFLOW_DROP_OLDEST);
+        subscription.offer("a", "1");
+        subscription.offer("b", "2");
+        // the server keeps pushing events while the listener is called
+        listener.onDelivery = new Runnable() {
+            private int count = 3;
+
+            @Override
+            public void run() {
+                if (count <= 6) {
+                    subscription.offer("k" + count, String.valueOf(count++));
+                }
+            }
+        };
+        executor.runNext();
+        assertEquals(2, listener.payloads.size());
+        // the rest is left for the next run, so other work on the executor gets its turn
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertTrue(listener.payloads.size() > 2);
+    }
+
+    @Test
+    public void cancelDropsTheBufferedEvents() {
+        Subscription subscription = subscription(4, Subscription.OVERFLOW_DROP_OLDEST);
+        subscription.offer("a", "1");
+        subscription.cancel();
+        subscription.offer("b", "2");
+        executor.runAll();
+        assertTrue(listener.payloads.isEmpty());
+        assertTrue(subscription.isCancelled());
+    }
+
+    @Test
+    public void failureIsDeliveredOnTheExecutor() {
+        Subscription subscription = subscription(4, Subscription.OVERFLOW_DROP_OLDEST);
+        subscription.fail("Network error", -5001);
+        assertTrue(listener.failures.isEmpty());
+        executor.runAll();
+        assertEquals(Collections.singletonList("Network error"), listener.failures);
+    }
+
+    @Test
+    public void brokenListenerDoesNotStopTheDelivery() {
+        Subscription subscription = subscription(4, Subscription.OVERFLOW_DROP_OLDEST);
+        listener.failOn = "1";
+        subscription.offer("a", "1");
+        subscription.offer("b", "2");
+        executor.runAll();
+        assertEquals(Arrays.asList("1", "2"), listener.payloads);
+    }
+
+    @Test
+    public void blockKeepsEveryEventWithoutStallingTheSocketThread() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch delivered = new CountDownLatch(10);
+        final List<String> payloads = Collections.synchronizedList(new ArrayList<String>());
+        ExecutorService listenerThread = Executors.newSingleThreadExecutor();
+        try {
+            Subscription subscription = new Subscription("chat", "message", 2, Subscription.OVERFLOW_BLOCK, listenerThread, new ServerEventListener() {
+                @Override
+                public void onEvent(String componentName, String eventName, String payload) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    payloads.add(payload);
+                    delivered.countDown();
+                }
+
+                @Override
+                public void onSubscriptionFailed(String componentName, String eventName, String error, int errorCode) {
+                }
+            });
+            // the listener is stuck, so the buffer of two fills up. The offering thread must not wait for it
+            for (int i = 1; i <= 10; i++) {
+                subscription.offer("k" + i, String.valueOf(i));
+            }
+            release.countDown();
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList("1", "2", "3", "4", "5", "6", "7", "8", "9", "10"), payloads);
+            assertEquals(0, subscription.getDroppedEvents());
+        } finally {
+            listenerThread.shutdownNow();
+        }
+    }
+
+    @Test
+    public void cancelReleasesTheBlockedIntake() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> payloads = Collections.synchronizedList(new ArrayList<String>());
+        ExecutorService listenerThread = Executors.newSingleThreadExecutor();
+        try {
+            Subscription subscription = new Subscription("chat", "message", 1, Subscription.OVERFLOW_BLOCK, listenerThread, new ServerEventListener() {
+                @Override
+                public void onEvent(String componentName, String eventName, String payload) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    payloads.add(payload);
+                }
+
+                @Override
+                public void onSubscriptionFailed(String componentName, String eventName, String error, int errorCode) {
+                }
+            });
+            for (int i = 1; i <= 5; i++) {
+                subscription.offer("k" + i, String.valueOf(i));
+            }
+            subscription.cancel();
+            release.countDown();
+            listenerThread.shutdown();
+            assertTrue(listenerThread.awaitTermination(5, TimeUnit.SECONDS));
+            // at most the event in the hands of the listener and the buffered one were taken before the cancel
+            assertTrue(payloads.size() <= 2);
+        } finally {
+            listenerThread.shutdownNow();
+        }
+    }
+
+    private Subscription subscription(int capacity, int overflowPolicy) {
+        return new Subscription("chat", "message", capacity, overflowPolicy, executor, listener);
+    }
+
+    /**
+     * Executor which only queues the tasks, so the test decides when the listener runs
+     */
+    private static class QueueExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable runnable) {
+            tasks.add(runnable);
+        }
+
+        void runNext() {
+            tasks.remove(0).run();
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                runNext();
+            }
+        }
+    }
+
+    private static class RecordingListener implements ServerEventListener {
+        private final List<String> payloads = new ArrayList<>();
+        private final List<String> failures = new ArrayList<>();
+        private Runnable onDelivery = null;
+        private String failOn = null;
+
+        @Override
+        public void onEvent(String componentName, String eventName, String payload) {
+            payloads.add(payload);
+            if (onDelivery != null) {
+                onDelivery.run();
+            }
+            if (payload.equals(failOn)) {
+                throw new IllegalStateException("broken listener");
+            }
+        }
+
+        @Override
+        public void onSubscriptionFailed(String componentName, String eventName, String error, int errorCode) {
+            failures.add(error);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.vimo.network.manager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ */
+public class TimeoutManagerTest {
+    private static final long TICK = 50;
+
+    @Test
+    public void firesNotBeforeTheDelay() throws Exception {
+        final CountDownLatch fired = new CountDownLatch(1);
+        final long[] firedAt = new long[1];
+        long start = System.nanoTime();
+        TimeoutManager.getManager().schedule(new Runnable() {
+            @Override
+            public void run() {
+                firedAt[0] = System.nanoTime();
+                fired.countDown();
+            }
+        }, 200);
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(firedAt[0] - start) >= 200 - TICK);
+    }
+
+    @Test
+    public void cancelledTimeoutDoesNotFire() throws Exception {
+        final AtomicBoolean fired = new AtomicBoolean(false);
+        TimeoutManager.Timeout timeout = TimeoutManager.getManager().schedule(new Runnable() {
+            @Override
+            public void run() {
+                fired.set(true);
+            }
+        }, 100);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        Thread.sleep(300);
+        assertFalse(fired.get());
+    }
+
+    @Test
+    public void cancelAfterFiringReturnsFalse() throws Exception {
+        final CountDownLatch fired = new CountDownLatch(1);
+        TimeoutManager.Timeout timeout = TimeoutManager.getManager().schedule(new Runnable() {
+            @Override
+            public void run() {
+                fired.countDown();
+            }
+        }, 0);
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    public void firesInOrderOfTheDeadlines() throws Exception {
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch fired = new CountDownLatch(3);
+        long[] delays = {300, 100, 200};
+        for (int index = 0; index < delays.length; index++) {
+            final int position = index;
+            TimeoutManager.getManager().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    order.add(position);
+                    fired.countDown();
+                }
+            }, delays[index]);
+        }
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertEquals(3, order.size());
+        assertEquals(Integer.valueOf(1), order.get(0));
+        assertEquals(Integer.valueOf(2), order.get(1));
+        assertEquals(Integer.valueOf(0), order.get(2));
+    }
+
+    @Test
+    public void failingTaskDoesNotStopTheWheel() throws Exception {
+        final CountDownLatch fired = new CountDownLatch(1);
+        TimeoutManager.getManager().schedule(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("broken task");
+            }
+        }, 0);
+        TimeoutManager.getManager().schedule(new Runnable() {
+            @Override
+            public void run() {
+                fired.countDown();
+            }
+        }, 100);
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void pendingCountFollowsScheduleAndCancel() {
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        int before = TimeoutManager.getManager().getPendingCount();
+        TimeoutManager.Timeout first = TimeoutManager.getManager().schedule(task, 60 * 1000);
+        TimeoutManager.Timeout second = TimeoutManager.getManager().schedule(task, 60 * 1000);
+        assertEquals(before + 2, TimeoutManager.getManager().getPendingCount());
+        first.cancel();
+        second.cancel();
+        assertEquals(before, TimeoutManager.getManager().getPendingCount());
+    }
+}
@@ -0,0 +1,138 @@
+package com.vimo.network.manager;
+
+import com.vimo.network.ViMoNetApplication;
+
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ *
+ * Checks VimoEncryption against the old implementation, which derived the key and created a new
+ * cipher for every call. The timing tests are ignored in the default suite. Remove the @Ignore to
+ * run them; they fail with the time per call of both if the cached cipher is not faster.
+ */
+public class VimoEncryptionBenchmarkTest {
+    private static final String VIMO_KEY = "benchmark-vimo-key";
+    private static final int PAYLOAD_SIZE = 1024;
+    private static final int WARMUP_ROUNDS = 2000;
+    private static final int MEASURED_ROUNDS = 20000;
+
+    private final byte[] payload = new byte[PAYLOAD_SIZE];
+
+    @Before
+    public void setUp() throws Exception {
+        ViMoNetApplication application = new ViMoNetApplication() {
+            {
+                vimoKey = VIMO_KEY;
+            }
+        };
+        Field field = ViMoNetApplication.class.getDeclaredField("myApplication");
+        field.setAccessible(true);
+        field.set(null, application);
+        VimoEncryption.invalidateKey();
+        new Random(7).nextBytes(payload);
+    }
+
+    @Test
+    public void cachedCipherGivesSameBytesAsBaseline() throws Exception {
+        byte[] encrypted = VimoEncryption.encryptBytes(payload, 0, payload.length);
+        assertArrayEquals(baselineEncrypt(payload), encrypted);
+        assertArrayEquals(payload, VimoEncryption.decryptBytes(encrypted));
+        assertArrayEquals(payload, baselineDecrypt(encrypted));
+    }
+
+    @Ignore("timing test. Run on demand")
+    @Test
+    public void encryptAgainstBaseline() throws Exception {
+        long baseline = measure(new Operation() {
+            @Override
+            public byte[] run(byte[] input) throws Exception {
+                return baselineEncrypt(input);
+            }
+        });
+        long cached = measure(new Operation() {
+            @Override
+            public byte[] run(byte[] input) throws Exception {
+                return VimoEncryption.encryptBytes(input, 0, input.length);
+            }
+        });
+        assertFaster("encrypt", baseline, cached);
+    }
+
+    @Ignore("timing test. Run on demand")
+    @Test
+    public void decryptAgainstBaseline() throws Exception {
+        final byte[] encrypted = VimoEncryption.encryptBytes(payload, 0, payload.length);
+        long baseline = measure(new Operation() {
+            @Override
+            public byte[] run(byte[] input) throws Exception {
+                return baselineDecrypt(encrypted);
+            }
+        });
+        long cached = measure(new Operation() {
+            @Override
+            public byte[] run(byte[] input) throws Exception {
+                return VimoEncryption.decryptBytes(encrypted);
+            }
+        });
+        assertFaster("decrypt", baseline, cached);
+    }
+
+    /**
+     * Method to run an operation for the measured rounds after a warm up
+     * @return  nano seconds per call
+     */
+    private long measure(Operation operation) throws Exception {
+        int checksum = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            checksum += operation.run(payload).length;
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            checksum += operation.run(payload).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        // keeps the results alive, so the calls can not be optimized away
+        assertTrue(checksum > 0);
+        return elapsed / MEASURED_ROUNDS;
+    }
+
+    private static void assertFaster(String name, long baseline, long cached) {
+        assertTrue(name + " " + PAYLOAD_SIZE + " bytes :: baseline " + baseline + " ns/call, cached " + cached + " ns/call",
+                cached < baseline);
+    }
+
+    private static byte[] baselineEncrypt(byte[] input) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, baselineKey());
+        return cipher.doFinal(input);
+    }
+
+    private static byte[] baselineDecrypt(byte[] encrypted) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.DECRYPT_MODE, baselineKey());
+        return cipher.doFinal(encrypted);
+    }
+
+    private static SecretKeySpec baselineKey() throws Exception {
+        MessageDigest md = MessageDigest.getInstance("MD5");
+        byte[] digest = md.digest(VIMO_KEY.getBytes(VimoEncryption.DEFAULT_CODING));
+        return new SecretKeySpec(digest, "AES");
+    }
+
+    private interface Operation {
+        byte[] run(byte[] input) throws Exception;
+    }
+}
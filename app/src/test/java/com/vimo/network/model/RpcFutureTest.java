@@ -0,0 +1,303 @@
+package com.vimo.network.model;
+
+import com.vimo.network.listener.NetworkCodes;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * File created by ViMo Software Development Pvt Ltd on 2026-10-18.
+ */
+public class RpcFutureTest {
+    private static final int SERVER_ERROR = 500;
+
+    @Test
+    public void completesOnlyOnce() throws Exception {
+        RpcFuture<String> future = new RpcFuture<>();
+        assertTrue(future.complete("first"));
+        assertFalse(future.complete("second"));
+        assertFalse(future.fail("error", SERVER_ERROR));
+        assertFalse(future.cancel(false));
+        assertEquals("first", future.get());
+        assertTrue(future.isSuccess());
+    }
+
+    @Test
+    public void failedFutureThrowsWithErrorCode() throws Exception {
+        RpcFuture<String> future = new RpcFuture<>();
+        future.fail("server error", SERVER_ERROR);
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals(SERVER_ERROR, ((RpcFuture.RpcException) e.getCause()).getErrorCode());
+            assertEquals("server error", e.getCause().getMessage());
+        }
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void getTimesOut() throws Exception {
+        new RpcFuture<String>().get(50, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void cancelRunsTheHookAndFailsTheCallbacks() throws Exception {
+        RpcFuture<String> future = new RpcFuture<>();
+        final AtomicBoolean hookCalled = new AtomicBoolean(false);
+        future.setCancelHook(new Runnable() {
+            @Override
+            public void run() {
+                hookCalled.set(true);
+            }
+        });
+        Recorder<String> recorder = new Recorder<>();
+        future.addCallback(recorder);
+        assertTrue(future.cancel(false));
+        assertTrue(hookCalled.get());
+        assertTrue(future.isCancelled());
+        assertEquals(NetworkCodes.EC_REQUEST_CANCELLED, recorder.errorCode);
+        try {
+            future.get();
+            fail();
+        } catch (CancellationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void cancelHookSetAfterCancelRunsRightAway() {
+        RpcFuture<String> future = new RpcFuture<>();
+        future.cancel(false);
+        final AtomicBoolean hookCalled = new AtomicBoolean(false);
+        future.setCancelHook(new Runnable() {
+            @Override
+            public void run() {
+                hookCalled.set(true);
+            }
+        });
+        assertTrue(hookCalled.get());
+    }
+
+    @Test
+    public void callbackAddedAfterCompletionRunsOnItsExecutor() {
+        final List<Runnable> queued = new ArrayList<>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                queued.add(runnable);
+            }
+        };
+        RpcFuture<String> future = new RpcFuture<>(executor);
+        future.complete("done");
+        Recorder<String> recorder = new Recorder<>();
+        future.addCallback(recorder);
+        assertNull(recorder.value);
+        assertEquals(1, queued.size());
+        queued.get(0).run();
+        assertEquals("done", recorder.value);
+    }
+
+    @Test
+    public void mapConvertsTheResult() throws Exception {
+        RpcFuture<String> future = new RpcFuture<>();
+        RpcFuture<Integer> length = future.map(new RpcFuture.Transform<String, Integer>() {
+            @Override
+            public Integer apply(String value) {
+                return value.length();
+            }
+        });
+        future.complete("hello");
+        assertEquals(Integer.valueOf(5), length.get());
+    }
+
+    @Test
+    public void mapFailsWithAppErrorWhenTheTransformThrows() {
+        RpcFuture<String> future = new RpcFuture<>();
+        RpcFuture<Integer> mapped = future.map(new RpcFuture.Transform<String, Integer>() {
+            @Override
+            public Integer apply(String value) throws Exception {
+                throw new IllegalStateException("broken transform");
+            }
+        });
+        Recorder<Integer> recorder = new Recorder<>();
+        mapped.addCallback(recorder);
+        future.complete("hello");
+        assertEquals(NetworkCodes.EC_APP_ERROR, recorder.errorCode);
+    }
+
+    @Test
+    public void mapPassesTheFailureOn() {
+        RpcFuture<String> future = new RpcFuture<>();
+        Recorder<Integer> recorder = new Recorder<>();
+        future.map(new RpcFuture.Transform<String, Integer>() {
+            @Override
+            public Integer apply(String value) {
+                return 0;
+            }
+        }).addCallback(recorder);
+        future.fail("server error", SERVER_ERROR);
+        assertEquals(SERVER_ERROR, recorder.errorCode);
+    }
+
+    @Test
+    public void cancellingTheMappedFutureCancelsTheSource() {
+        RpcFuture<String> future = new RpcFuture<>();
+        RpcFuture<Integer> mapped = future.map(new RpcFuture.Transform<String, Integer>() {
+            @Override
+            public Integer apply(String value) {
+                return 0;
+            }
+        });
+        mapped.cancel(false);
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void flatMapChainsTheNextRequest() throws Exception {
+        RpcFuture<String> first = new RpcFuture<>();
+        final RpcFuture<Integer> second = new RpcFuture<>();
+        RpcFuture<Integer> chained = first.flatMap(new RpcFuture.Chain<String, Integer>() {
+            @Override
+            public RpcFuture<Integer> apply(String value) {
+                return second;
+            }
+        });
+        first.complete("step one");
+        assertFalse(chained.isDone());
+        second.complete(2);
+        assertEquals(Integer.valueOf(2), chained.get());
+    }
+
+    @Test
+    public void cancellingTheChainCancelsTheRunningStep() {
+        RpcFuture<String> first = new RpcFuture<>();
+        final RpcFuture<Integer> second = new RpcFuture<>();
+        RpcFuture<Integer> chained = first.flatMap(new RpcFuture.Chain<String, Integer>() {
+            @Override
+            public RpcFuture<Integer> apply(String value) {
+                return second;
+            }
+        });
+        first.complete("step one");
+        chained.cancel(false);
+        assertTrue(second.isCancelled());
+        assertFalse(first.isCancelled());
+    }
+
+    @Test
+    public void flatMapWithNullStepCompletesWithNull() throws Exception {
+        RpcFuture<String> first = new RpcFuture<>();
+        RpcFuture<Integer> chained = first.flatMap(new RpcFuture.Chain<String, Integer>() {
+            @Override
+            public RpcFuture<Integer> apply(String value) {
+                return null;
+            }
+        });
+        first.complete("done");
+        assertTrue(chained.isSuccess());
+        assertNull(chained.get());
+    }
+
+    @Test
+    public void allKeepsTheOrderOfTheFutures() throws Exception {
+        RpcFuture<String> first = new RpcFuture<>();
+        RpcFuture<String> second = new RpcFuture<>();
+        RpcFuture<List<String>> all = RpcFuture.all(Arrays.asList(first, second));
+        second.complete("b");
+        assertFalse(all.isDone());
+        first.complete("a");
+        assertEquals(Arrays.asList("a", "b"), all.get());
+    }
+
+    @Test
+    public void allFailsWithTheFirstFailureAndCancelsTheOthers() {
+        RpcFuture<String> first = new RpcFuture<>();
+        RpcFuture<String> second = new RpcFuture<>();
+        RpcFuture<List<String>> all = RpcFuture.all(Arrays.asList(first, second));
+        Recorder<List<String>> recorder = new Recorder<>();
+        all.addCallback(recorder);
+        first.fail("server error", SERVER_ERROR);
+        assertEquals(SERVER_ERROR, recorder.errorCode);
+        assertTrue(second.isCancelled());
+    }
+
+    @Test
+    public void allOfNothingIsAnEmptyList() throws Exception {
+        assertTrue(RpcFuture.all(Collections.<RpcFuture<String>>emptyList()).get().isEmpty());
+    }
+
+    @Test
+    public void anyTakesTheFirstSuccessAndCancelsTheOthers() throws Exception {
+        RpcFuture<String> first = new RpcFuture<>();
+        RpcFuture<String> second = new RpcFuture<>();
+        RpcFuture<String> any = RpcFuture.any(Arrays.asList(first, second));
+        first.fail("server error", SERVER_ERROR);
+        assertFalse(any.isDone());
+        second.complete("b");
+        assertEquals("b", any.get());
+    }
+
+    @Test
+    public void anyCancelsTheSlowerRequests() {
+        RpcFuture<String> first = new RpcFuture<>();
+        RpcFuture<String> second = new RpcFuture<>();
+        RpcFuture.any(Arrays.asList(first, second));
+        first.complete("a");
+        assertTrue(second.isCancelled());
+    }
+
+    @Test
+    public void anyFailsWithTheLastErrorWhenEveryRequestFails() {
+        RpcFuture<String> first = new RpcFuture<>();
+        RpcFuture<String> second = new RpcFuture<>();
+        RpcFuture<String> any = RpcFuture.any(Arrays.asList(first, second));
+        Recorder<String> recorder = new Recorder<>();
+        any.addCallback(recorder);
+        first.fail("first error", SERVER_ERROR);
+        second.fail("second error", NetworkCodes.EC_APP_ERROR);
+        assertEquals("second error", recorder.error);
+        assertEquals(NetworkCodes.EC_APP_ERROR, recorder.errorCode);
+    }
+
+    @Test
+    public void cancellingAllCancelsEveryRequest() {
+        RpcFuture<String> first = new RpcFuture<>();
+        RpcFuture<String> second = new RpcFuture<>();
+        RpcFuture.all(Arrays.asList(first, second)).cancel(false);
+        assertTrue(first.isCancelled());
+        assertTrue(second.isCancelled());
+    }
+
+    private static class Recorder<T> implements RpcFuture.Callback<T> {
+        private T value;
+        private String error;
+        private int errorCode;
+
+        @Override
+        public void onSuccess(T value) {
+            this.value = value;
+        }
+
+        @Override
+        public void onFailure(String error, int errorCode) {
+            this.error = error;
+            this.errorCode = errorCode;
+        }
+    }
+}